@@ -2,31 +2,78 @@ import chess.ChessException;
 import chess.ChessMatch;
 import chess.ChessPiece;
 import chess.ChessPosition;
+import chess.Color;
+import chess.Move;
+import chess.MoveList;
+import chess.book.OpeningBook;
+import chess.engine.ParallelSearch;
+import chess.engine.SearchResult;
+import chess.engine.TranspositionTable;
+import chess.tablebase.Tablebases;
 
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.InputMismatchException;
 import java.util.List;
+import java.util.Random;
 import java.util.Scanner;
 
 public class App {
 
+    // Usage: java App [white|black] [milliseconds per engine move] [search threads] [opening book] [tablebase directory]
+    // With a color argument, that side is played by the built-in engine, which plays book moves while it has them
+    // and answers endings covered by the tablebases without searching.
     public static void main(String[] args) throws Exception {
         ChessMatch chessMatch = new ChessMatch();
         List <ChessPiece>  captured = new ArrayList<>();
         Scanner sc = new Scanner(System.in);
 
+        Color engineColor = (args.length > 0) ? Color.valueOf(args[0].toUpperCase()) : null;
+        long moveTime = (args.length > 1) ? Long.parseLong(args[1]) : 2000;
+        int threads = (args.length > 2) ? Integer.parseInt(args[2]) : 1;
+        ParallelSearch search = (engineColor != null) ? new ParallelSearch(new TranspositionTable(64), threads) : null;
+        OpeningBook book = (args.length > 3) ? OpeningBook.open(Paths.get(args[3])) : null;
+        if (args.length > 4) {
+            search.setTablebases(Tablebases.open(Paths.get(args[4])));
+        }
+        MoveList bookMoves = new MoveList();
+        Random random = new Random();
+        String engineInfo = null;
 
-        while (!chessMatch.getCheckMate()) {
+        while (!chessMatch.getCheckMate() && chessMatch.getDraw() == null) {
             try {
-                UI.clearScreen();
                 UI.printMatch(chessMatch, captured);
+                if (engineInfo != null) {
+                    System.out.println("Engine: " + engineInfo);
+                }
                 System.out.println();
+
+                if (chessMatch.getCurrentPlayer() == engineColor) {
+                    int move = (book != null) ? book.probe(chessMatch, bookMoves, random) : Move.NONE;
+                    if (move != Move.NONE) {
+                        engineInfo = Move.toString(move) + " (book)";
+                    } else {
+                        System.out.println("Thinking...");
+                        SearchResult result = search.search(chessMatch, moveTime);
+                        move = result.getBestMove();
+                        engineInfo = result.toString();
+                    }
+                    ChessPiece capturedPiece = chessMatch.performChessMove(ChessPosition.fromSquare(Move.from(move)),
+                            ChessPosition.fromSquare(Move.to(move)));
+                    if (capturedPiece != null) {
+                        captured.add(capturedPiece);
+                    }
+                    if (chessMatch.getPromoted() != null) {
+                        chessMatch.replacePromotedPiece(Move.promotion(move));
+                    }
+                    continue;
+                }
+
                 System.out.print("Source: ");
                 ChessPosition source = UI.readChessPosition(sc);
 
-                boolean[][] possibleMoves = chessMatch.possibleMoves(source);
-                UI.clearScreen();
-                UI.printBoard(chessMatch.getPieces(), possibleMoves);
+                long possibleMoves = chessMatch.possibleMovesMask(source);
+                UI.printBoard(chessMatch, possibleMoves);
 
 
                 System.out.println();
@@ -61,7 +108,9 @@ public class App {
                 sc.nextLine();
             }
         }
-        UI.clearScreen();
         UI.printMatch(chessMatch, captured);
+        if (engineInfo != null) {
+            System.out.println("Engine: " + engineInfo);
+        }
     }
 }
@@ -1,14 +1,12 @@
 
-import java.util.Arrays;
 import java.util.InputMismatchException;
 import java.util.List;
 import java.util.Scanner;
-import java.util.stream.Collectors;
 
 import chess.ChessMatch;
 import chess.ChessPiece;
 import chess.ChessPosition;
-import chess.Color;
+import chess.ui.BoardRenderer;
 
 public class UI {
 
@@ -31,9 +29,13 @@ public class UI {
     public static final String ANSI_CYAN_BACKGROUND = "\u001B[46m";
     public static final String ANSI_WHITE_BACKGROUND = "\u001B[47m";
 
+    // Frames go through one buffered, diff-based renderer, so a move redraws only the squares it changed
+    private static final BoardRenderer RENDERER = new BoardRenderer(System.out);
+
     public static void clearScreen() {
         System.out.print("\033[H\033[2J");
         System.out.flush();
+        RENDERER.invalidate();
     }
 
     public static ChessPosition readChessPosition(Scanner sc) {
@@ -49,75 +51,10 @@ public class UI {
     }
 
     public static void printMatch(ChessMatch chessMatch, List<ChessPiece> captured) {
-        printBoard(chessMatch.getPieces());
-        System.out.println();
-        printCapturedPieces(captured);
-        System.out.println();
-        System.out.println("Turn : " + chessMatch.getTurn());
-        if (!chessMatch.getCheckMate()) {
-            System.out.println("Waiting player: " + chessMatch.getCurrentPlayer());
-            if (chessMatch.getCheck()) {
-                System.out.println("CHECK!");
-            }
-        }
-        else {
-            System.out.println("CHECKMATE!");
-            System.out.println("Winner: " + chessMatch.getCurrentPlayer());
-        }
-    }
-
-    public static void printBoard(ChessPiece[][] pieces) {
-        for (int i = 0; i < pieces.length; i++) {
-            System.out.print((8 - i) + " ");
-            for (int j = 0; j < pieces.length; j++) {
-                printPiece(pieces[i][j], false);
-            }
-            System.out.println();
-        }
-        System.out.println("  a b c d e f g h");
-    }
-
-    public static void printBoard(ChessPiece[][] pieces, boolean[][] possibleMoves) {
-        for (int i = 0; i < pieces.length; i++) {
-            System.out.print((8 - i) + " ");
-            for (int j = 0; j < pieces.length; j++) {
-                printPiece(pieces[i][j], possibleMoves[i][j]);
-            }
-            System.out.println();
-        }
-        System.out.println("  a b c d e f g h");
-    }
-
-    private static void printPiece(ChessPiece piece, boolean background) {
-        if (background) {
-            System.out.print(ANSI_BLUE_BACKGROUND);
-        }
-        if (piece == null) {
-            System.out.print("-" + ANSI_RESET);
-        } else {
-            if (piece.getColor() == Color.WHITE) {
-                System.out.print(ANSI_WHITE + piece + ANSI_RESET);
-            } else {
-                System.out.print(ANSI_YELLOW + piece + ANSI_RESET);
-            }
-        }
-        System.out.print(" ");
+        RENDERER.drawMatch(chessMatch, captured);
     }
 
-
-    private static void printCapturedPieces(List<ChessPiece> captured) {
-        List<ChessPiece> white = captured.stream().filter(x -> x.getColor() == Color.WHITE).collect(Collectors.toList());
-        List<ChessPiece> black = captured.stream().filter(x -> x.getColor() == Color.BLACK).collect(Collectors.toList());
-        System.out.println("Captured pieces:");
-        System.out.print("White: ");
-        System.out.print(ANSI_WHITE);
-        System.out.println(Arrays.toString(white.toArray()));
-        System.out.print(ANSI_RESET);
-
-        System.out.print("Black: ");
-        System.out.print(ANSI_YELLOW);
-        System.out.println(Arrays.toString(black.toArray()));
-        System.out.print(ANSI_RESET);
-
+    public static void printBoard(ChessMatch chessMatch, long possibleMoves) {
+        RENDERER.drawBoard(chessMatch, possibleMoves);
     }
-}
\ No newline at end of file
+}
@@ -6,7 +6,8 @@ public class Board {
 
     private int rows;
     private int columns;
-    private  Piece[][] pieces;
+    // Row-major, one entry per square
+    private  Piece[] pieces;
 
     public Board(int rows, int columns) {
         if (rows < 1 || columns < 1) {
@@ -14,7 +15,7 @@ public class Board {
         }
         this.rows = rows;
         this.columns = columns;
-        pieces = new Piece[rows][columns];
+        pieces = new Piece[rows * columns];
     }
 
     public int getRows() {
@@ -30,22 +31,21 @@ public class Board {
         if (!positionExists(position)) {
             throw new BoardException("Position not on the board");
         }
-        return pieces[position.getRow()][position.getColumn()];
+        return pieces[index(position.getRow(), position.getColumn())];
     }
 
     public Piece piece(int row, int column) {
         if (!positionExists(row, column)) {
             throw new BoardException("Position not on the board: " + row + ", " + column);
         }
-        return pieces[row][column];
+        return pieces[index(row, column)];
     }
 
     public void placePiece(Piece piece, Position position) {
         if (thereIsAPiece(position)) {
             throw new BoardException("There is already a piece on position " + position);
         }
-        pieces[position.getRow()][position.getColumn()] = piece;
-        piece.position = position;
+        pieces[index(position.getRow(), position.getColumn())] = piece;
     }
 
     public Piece removePiece(Position position) {
@@ -56,11 +56,23 @@ public class Board {
             return null;
         }
         Piece aux = piece(position);
-        aux.position = null; // Clear the position of the piece before removing it
-        pieces[position.getRow()][position.getColumn()] = null;
+        pieces[index(position.getRow(), position.getColumn())] = null;
         return aux;
     }
 
+    private int index(int row, int column) {
+        return row * columns + column;
+    }
+
+    // Unchecked access by row-major index (row * columns + column), for subclasses that number their squares
+    protected Piece pieceAt(int index) {
+        return pieces[index];
+    }
+
+    protected void setPieceAt(int index, Piece piece) {
+        pieces[index] = piece;
+    }
+
     private boolean positionExists(int row, int column) {
         return row >= 0 && row < rows && column >= 0 && column < columns;
     }
@@ -1,27 +1,19 @@
 package boardgame;
 
+/**
+ * A kind of piece rather than one standing somewhere: it holds no board or position, so a single instance
+ * can be shared by every board it appears on. Move queries are told which board and square to look at.
+ */
 public abstract class Piece {
 
-    protected Position position;
-    private Board board;
+    public abstract boolean[][] possibleMoves(Board board, Position position);
 
-    public Piece(Board board) {
-        this.board = board;
-        this.position = null; // Position will be set later
+    public boolean possibleMove(Board board, Position source, Position target) {
+        return possibleMoves(board, source)[target.getRow()][target.getColumn()];
     }
 
-    protected Board getBoard() {
-        return board;
-    }
-
-    public abstract boolean[][] possibleMoves();
-
-    public boolean possibleMove(Position position) {
-        return possibleMoves()[position.getRow()][position.getColumn()];
-    }
-
-    public boolean isThereAnyPossibleMove() {
-        boolean[][] mat = possibleMoves();
+    public boolean isThereAnyPossibleMove(Board board, Position position) {
+        boolean[][] mat = possibleMoves(board, position);
         for (int i = 0; i < mat.length; i++) {
             for (int j = 0; j < mat[i].length; j++) {
                 if (mat[i][j]) {
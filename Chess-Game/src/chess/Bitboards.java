@@ -0,0 +1,223 @@
+package chess;
+
+import boardgame.Position;
+
+/**
+ * Attack tables for an 8x8 board stored as 64-bit masks.
+ * Square index is row * 8 + column, using the same rows and columns as boardgame.Position
+ * (row 0 is rank 8, column 0 is file a).
+ * Sliding attacks are looked up through magic multiplication tables built once at class load.
+ */
+public final class Bitboards {
+
+    public static final long[] KNIGHT_ATTACKS = new long[64];
+    public static final long[] KING_ATTACKS = new long[64];
+    // Indexed by Color.ordinal(), then by square
+    public static final long[][] PAWN_ATTACKS = new long[2][64];
+
+    // Squares strictly between two aligned squares, and the full line through them (0 when not aligned)
+    public static final long[][] BETWEEN = new long[64][64];
+    public static final long[][] LINE = new long[64][64];
+
+    private static final int[][] ROOK_DIRECTIONS = {{-1, 0}, {1, 0}, {0, -1}, {0, 1}};
+    private static final int[][] BISHOP_DIRECTIONS = {{-1, -1}, {-1, 1}, {1, -1}, {1, 1}};
+
+    private static final long[] ROOK_MASKS = new long[64];
+    private static final long[] ROOK_MAGICS = new long[64];
+    private static final int[] ROOK_SHIFTS = new int[64];
+    private static final int[] ROOK_OFFSETS = new int[64];
+    private static final long[] ROOK_TABLE = new long[102400];
+
+    private static final long[] BISHOP_MASKS = new long[64];
+    private static final long[] BISHOP_MAGICS = new long[64];
+    private static final int[] BISHOP_SHIFTS = new int[64];
+    private static final int[] BISHOP_OFFSETS = new int[64];
+    private static final long[] BISHOP_TABLE = new long[5248];
+
+    private static long seed = 0x9E3779B97F4A7C15L;
+
+    static {
+        int[][] knightSteps = {{-2, -1}, {-2, 1}, {2, -1}, {2, 1}, {-1, -2}, {-1, 2}, {1, -2}, {1, 2}};
+        int[][] kingSteps = {{-1, -1}, {-1, 0}, {-1, 1}, {0, -1}, {0, 1}, {1, -1}, {1, 0}, {1, 1}};
+        for (int sq = 0; sq < 64; sq++) {
+            KNIGHT_ATTACKS[sq] = steps(sq, knightSteps);
+            KING_ATTACKS[sq] = steps(sq, kingSteps);
+            PAWN_ATTACKS[Color.WHITE.ordinal()][sq] = steps(sq, new int[][]{{-1, -1}, {-1, 1}});
+            PAWN_ATTACKS[Color.BLACK.ordinal()][sq] = steps(sq, new int[][]{{1, -1}, {1, 1}});
+        }
+        initMagics(ROOK_DIRECTIONS, ROOK_MASKS, ROOK_MAGICS, ROOK_SHIFTS, ROOK_OFFSETS, ROOK_TABLE);
+        initMagics(BISHOP_DIRECTIONS, BISHOP_MASKS, BISHOP_MAGICS, BISHOP_SHIFTS, BISHOP_OFFSETS, BISHOP_TABLE);
+        initLines();
+    }
+
+    private Bitboards() {
+    }
+
+    public static int square(int row, int column) {
+        return row * 8 + column;
+    }
+
+    public static int square(Position position) {
+        return position.getRow() * 8 + position.getColumn();
+    }
+
+    public static int row(int square) {
+        return square >>> 3;
+    }
+
+    public static int column(int square) {
+        return square & 7;
+    }
+
+    public static long bit(int square) {
+        return 1L << square;
+    }
+
+    public static long rookAttacks(int square, long occupied) {
+        int index = (int) (((occupied & ROOK_MASKS[square]) * ROOK_MAGICS[square]) >>> ROOK_SHIFTS[square]);
+        return ROOK_TABLE[ROOK_OFFSETS[square] + index];
+    }
+
+    public static long bishopAttacks(int square, long occupied) {
+        int index = (int) (((occupied & BISHOP_MASKS[square]) * BISHOP_MAGICS[square]) >>> BISHOP_SHIFTS[square]);
+        return BISHOP_TABLE[BISHOP_OFFSETS[square] + index];
+    }
+
+    public static long queenAttacks(int square, long occupied) {
+        return rookAttacks(square, occupied) | bishopAttacks(square, occupied);
+    }
+
+    // Converts a move mask into the matrix form returned by Piece.possibleMoves()
+    public static boolean[][] toMatrix(long mask) {
+        boolean[][] mat = new boolean[8][8];
+        while (mask != 0) {
+            int sq = Long.numberOfTrailingZeros(mask);
+            mat[row(sq)][column(sq)] = true;
+            mask &= mask - 1;
+        }
+        return mat;
+    }
+
+    private static boolean onBoard(int row, int column) {
+        return row >= 0 && row < 8 && column >= 0 && column < 8;
+    }
+
+    private static long steps(int sq, int[][] steps) {
+        long mask = 0L;
+        for (int[] step : steps) {
+            int r = row(sq) + step[0];
+            int c = column(sq) + step[1];
+            if (onBoard(r, c)) {
+                mask |= bit(square(r, c));
+            }
+        }
+        return mask;
+    }
+
+    // Walks each ray until it leaves the board or hits a blocker (the blocker is included)
+    private static long slidingAttacks(int sq, long occupied, int[][] directions) {
+        long attacks = 0L;
+        for (int[] d : directions) {
+            int r = row(sq) + d[0];
+            int c = column(sq) + d[1];
+            while (onBoard(r, c)) {
+                long b = bit(square(r, c));
+                attacks |= b;
+                if ((occupied & b) != 0) {
+                    break;
+                }
+                r += d[0];
+                c += d[1];
+            }
+        }
+        return attacks;
+    }
+
+    // Squares whose occupancy matters for the ray lookup: every ray square except the last one on the edge
+    private static long relevantMask(int sq, int[][] directions) {
+        long mask = 0L;
+        for (int[] d : directions) {
+            int r = row(sq) + d[0];
+            int c = column(sq) + d[1];
+            while (onBoard(r + d[0], c + d[1])) {
+                mask |= bit(square(r, c));
+                r += d[0];
+                c += d[1];
+            }
+        }
+        return mask;
+    }
+
+    private static void initLines() {
+        for (int a = 0; a < 64; a++) {
+            for (int b = 0; b < 64; b++) {
+                if (a == b) {
+                    continue;
+                }
+                long target = bit(b);
+                if ((rookAttacks(a, 0L) & target) != 0) {
+                    BETWEEN[a][b] = rookAttacks(a, target) & rookAttacks(b, bit(a));
+                    LINE[a][b] = (rookAttacks(a, 0L) & rookAttacks(b, 0L)) | bit(a) | target;
+                } else if ((bishopAttacks(a, 0L) & target) != 0) {
+                    BETWEEN[a][b] = bishopAttacks(a, target) & bishopAttacks(b, bit(a));
+                    LINE[a][b] = (bishopAttacks(a, 0L) & bishopAttacks(b, 0L)) | bit(a) | target;
+                }
+            }
+        }
+    }
+
+    private static long nextRandom() {
+        seed ^= seed >>> 12;
+        seed ^= seed << 25;
+        seed ^= seed >>> 27;
+        return seed * 0x2545F4914F6CDD1DL;
+    }
+
+    private static void initMagics(int[][] directions, long[] masks, long[] magics, int[] shifts, int[] offsets, long[] table) {
+        int offset = 0;
+        long[] occupancies = new long[4096];
+        long[] attacks = new long[4096];
+        int[] epoch = new int[4096];
+        int attempt = 0;
+
+        for (int sq = 0; sq < 64; sq++) {
+            long mask = relevantMask(sq, directions);
+            int bits = Long.bitCount(mask);
+            int size = 1 << bits;
+
+            // Enumerate every subset of the mask (carry-rippler)
+            long subset = 0L;
+            for (int i = 0; i < size; i++) {
+                occupancies[i] = subset;
+                attacks[i] = slidingAttacks(sq, subset, directions);
+                subset = (subset - mask) & mask;
+            }
+
+            while (true) {
+                long magic = nextRandom() & nextRandom() & nextRandom();
+                if (Long.bitCount((mask * magic) & 0xFF00000000000000L) < 6) {
+                    continue;
+                }
+                attempt++;
+                boolean failed = false;
+                for (int i = 0; i < size && !failed; i++) {
+                    int index = (int) ((occupancies[i] * magic) >>> (64 - bits));
+                    if (epoch[index] != attempt) {
+                        epoch[index] = attempt;
+                        table[offset + index] = attacks[i];
+                    } else if (table[offset + index] != attacks[i]) {
+                        failed = true;
+                    }
+                }
+                if (!failed) {
+                    masks[sq] = mask;
+                    magics[sq] = magic;
+                    shifts[sq] = 64 - bits;
+                    offsets[sq] = offset;
+                    break;
+                }
+            }
+            offset += size;
+        }
+    }
+}
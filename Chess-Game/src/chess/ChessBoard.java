@@ -0,0 +1,131 @@
+package chess;
+
+import boardgame.Board;
+import boardgame.BoardException;
+import boardgame.Piece;
+import boardgame.Position;
+
+/**
+ * 8x8 board that mirrors its pieces into twelve occupancy bitboards, one per color and piece type.
+ * Every placement and removal goes through placePiece/removePiece, so the masks never drift from the Piece grid.
+ * The pieces are shared flyweights, so the board also keeps the castling rights and en passant square
+ * that King and Pawn need to work out their moves.
+ */
+public class ChessBoard extends Board implements PieceBitboards {
+
+    private final long[] bitboards = new long[12];
+    private final long[] colorOccupancy = new long[2];
+    // Zobrist key of the piece placement, updated on every placement and removal
+    private long zobristKey;
+    // Combination of the MoveGenerator castling right bits
+    private int castlingRights;
+    // Square a pawn of the side to move may capture onto en passant, or -1
+    private int enPassantSquare = -1;
+
+    public ChessBoard() {
+        super(8, 8);
+    }
+
+    @Override
+    public void placePiece(Piece piece, Position position) {
+        if (!positionExists(position)) {
+            throw new BoardException("Position not on the board: " + position);
+        }
+        placePiece(piece, Bitboards.square(position));
+    }
+
+    @Override
+    public Piece removePiece(Position position) {
+        if (!positionExists(position)) {
+            throw new BoardException("Position not on the board: " + position);
+        }
+        return removePiece(Bitboards.square(position));
+    }
+
+    public ChessPiece piece(int square) {
+        return (ChessPiece) pieceAt(square);
+    }
+
+    public void placePiece(Piece piece, int square) {
+        if (pieceAt(square) != null) {
+            throw new BoardException("There is already a piece on position " + Bitboards.row(square) + ", " + Bitboards.column(square));
+        }
+        setPieceAt(square, piece);
+        ChessPiece p = (ChessPiece) piece;
+        int index = p.getType().index(p.getColor());
+        bitboards[index] |= Bitboards.bit(square);
+        colorOccupancy[p.getColor().ordinal()] |= Bitboards.bit(square);
+        zobristKey ^= Zobrist.PIECES[index][square];
+    }
+
+    public Piece removePiece(int square) {
+        ChessPiece p = (ChessPiece) pieceAt(square);
+        if (p != null) {
+            setPieceAt(square, null);
+            int index = p.getType().index(p.getColor());
+            bitboards[index] &= ~Bitboards.bit(square);
+            colorOccupancy[p.getColor().ordinal()] &= ~Bitboards.bit(square);
+            zobristKey ^= Zobrist.PIECES[index][square];
+        }
+        return p;
+    }
+
+    @Override
+    public long getBitboard(Color color, PieceType type) {
+        return bitboards[type.index(color)];
+    }
+
+    @Override
+    public long getOccupancy(Color color) {
+        return colorOccupancy[color.ordinal()];
+    }
+
+    public long getZobristKey() {
+        return zobristKey;
+    }
+
+    @Override
+    public long getOccupancy() {
+        return colorOccupancy[0] | colorOccupancy[1];
+    }
+
+    public int getCastlingRights() {
+        return castlingRights;
+    }
+
+    void setCastlingRights(int castlingRights) {
+        this.castlingRights = castlingRights;
+    }
+
+    public int getEnPassantSquare() {
+        return enPassantSquare;
+    }
+
+    void setEnPassantSquare(int enPassantSquare) {
+        this.enPassantSquare = enPassantSquare;
+    }
+
+    /**
+     * Tells whether any piece of the given color attacks the square.
+     * Looks outward from the square with each piece's attack pattern and stops at the first attacker found,
+     * so it never generates the attacker's moves.
+     */
+    public boolean isSquareAttacked(int square, Color byColor) {
+        if ((Bitboards.PAWN_ATTACKS[byColor.opponent().ordinal()][square] & getBitboard(byColor, PieceType.PAWN)) != 0) {
+            return true;
+        }
+        if ((Bitboards.KNIGHT_ATTACKS[square] & getBitboard(byColor, PieceType.KNIGHT)) != 0) {
+            return true;
+        }
+        if ((Bitboards.KING_ATTACKS[square] & getBitboard(byColor, PieceType.KING)) != 0) {
+            return true;
+        }
+        long queens = getBitboard(byColor, PieceType.QUEEN);
+        long orthogonal = getBitboard(byColor, PieceType.ROOK) | queens;
+        if (orthogonal != 0 && (Bitboards.rookAttacks(square, getOccupancy()) & orthogonal) != 0) {
+            return true;
+        }
+        long diagonal = getBitboard(byColor, PieceType.BISHOP) | queens;
+        return diagonal != 0 && (Bitboards.bishopAttacks(square, getOccupancy()) & diagonal) != 0;
+    }
+}
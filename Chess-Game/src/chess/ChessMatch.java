@@ -1,32 +1,121 @@
 package chess;
 
-import boardgame.Board;
-import boardgame.Piece;
 import boardgame.Position;
-import chess.pieces.*;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Arrays;
 
+/**
+ * A game of chess. The pieces are the shared ChessPiece flyweights, so a match is only its board plus a few
+ * primitive arrays: the piece registry, the king squares and the move history, where each ply takes one packed
+ * move, one packed int of irreversible state and one Zobrist key.
+ */
 public class ChessMatch {
 
-    private Board board;
+    // FEN letters in PieceType order
+    private static final String FEN_PIECES = "PNBRQK";
+    private static final PieceType[] TYPES = PieceType.values();
+    private static final int INITIAL_HISTORY = 64;
+    private static final int MAX_COUNTER_DIGITS = 5;
+    /*
+     * Packed state of one history entry, everything a move destroys: castling rights in bits 0-3,
+     * en passant square + 1 in bits 4-10, the check flag in bit 11, the captured piece's type ordinal + 1
+     * in bits 12-15 (its color is the opponent's) and the halfmove clock in bits 16-31.
+     */
+    private static final int CHECK_BIT = 1 << 11;
+    // Squares where a1 is: (row + column) odd in Bitboards numbering
+    private static final long DARK_SQUARES = 0x55AA55AA55AA55AAL;
+
+    private ChessBoard board;
     private int turn;
     private Color currentPlayer;
     private boolean check;
     private boolean checkMate;
-    private ChessPiece enPassantVulnerable;
-    private ChessPiece promoted;
+    private boolean stalemate;
+    private DrawReason draw;
+    // Square of the piece just promoted, until the next move, or -1
+    private int promotedSquare = -1;
+    // Plies since the last capture or pawn move
+    private int halfmoveClock;
+    // Side to move, castling and en passant part of the Zobrist key; the board holds the placement part
+    private long stateKey;
+
+    private final PieceRegistry piecesOnTheBoard = new PieceRegistry();
+    // Indexed by Color ordinal; kept up to date by every king move, so check tests need no board scan
+    private final int[] kingSquares = new int[2];
+
+    private MoveGenerator moveGenerator;
+    private MatchListener listener;
+    // Legal moves of the current player, generated at most once per position and dropped whenever it changes
+    private final MoveList legalMoves = new MoveList();
+    private boolean legalMovesValid;
+
+    // Undo information for makeMove, one entry per ply; historyStates holds what packState packs and historyKeys
+    // the Zobrist key of the position the move was played from, which is also what repetitions are found with
+    private int[] historyMoves = new int[INITIAL_HISTORY];
+    private int[] historyStates = new int[INITIAL_HISTORY];
+    private long[] historyKeys = new long[INITIAL_HISTORY];
+    private int historySize;
+    // Entries from historySize up to here are moves taken back, kept for redo
+    private int historyEnd;
 
-    private List<ChessPiece> piecesOnTheBoard = new ArrayList<>();
-    private List <ChessPiece> capturedPieces = new ArrayList<>();
+    // Last snapshot handed out and the history size it was taken at; later snapshots extend it move by move
+    private PositionSnapshot snapshot;
+    private int snapshotPly;
 
     public ChessMatch() {
-        this.board = new Board(8, 8);
+        this.board = new ChessBoard();
+        this.moveGenerator = new MoveGenerator(board);
         this.turn = 1;
         this.currentPlayer = Color.WHITE; // White starts the game
         initialSetup();
+        board.setCastlingRights(MoveGenerator.ALL_CASTLING);
+        stateKey = computeStateKey();
+    }
+
+    /**
+     * Match starting from a position in Forsyth-Edwards Notation, e.g.
+     * "rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 1". See loadFen.
+     */
+    public ChessMatch(CharSequence fen) {
+        this.board = new ChessBoard();
+        this.moveGenerator = new MoveGenerator(board);
+        loadFen(fen);
+    }
+
+    /**
+     * Independent copy of another match's position, with its own board.
+     * The copy keeps only the moves since the last capture or pawn move, which is all repetition detection
+     * needs, so undoMove cannot go back past that point and there is nothing to redo.
+     */
+    public ChessMatch(ChessMatch other) {
+        this.board = new ChessBoard();
+        this.moveGenerator = new MoveGenerator(board);
+        this.turn = other.turn;
+        this.currentPlayer = other.currentPlayer;
+        this.check = other.check;
+        this.checkMate = other.checkMate;
+        this.stalemate = other.stalemate;
+        this.draw = other.draw;
+        this.halfmoveClock = other.halfmoveClock;
+        this.promotedSquare = other.promotedSquare;
+        for (long occupied = other.board.getOccupancy(); occupied != 0; occupied &= occupied - 1) {
+            int sq = Long.numberOfTrailingZeros(occupied);
+            addPiece(other.board.piece(sq), sq);
+        }
+        board.setCastlingRights(other.castlingRights());
+        board.setEnPassantSquare(other.enPassantSquare());
+        stateKey = other.stateKey;
+
+        int window = Math.min(other.historySize, other.halfmoveClock);
+        while (historyMoves.length < window) {
+            growHistory();
+        }
+        int first = other.historySize - window;
+        System.arraycopy(other.historyMoves, first, historyMoves, 0, window);
+        System.arraycopy(other.historyStates, first, historyStates, 0, window);
+        System.arraycopy(other.historyKeys, first, historyKeys, 0, window);
+        historySize = window;
+        historyEnd = window;
     }
 
     public int getTurn() {
@@ -34,7 +123,7 @@ public class ChessMatch {
     }
 
     public ChessPiece getPromoted() {
-        return promoted;
+        return (promotedSquare < 0) ? null : board.piece(promotedSquare);
     }
 
     public Color getCurrentPlayer() {
@@ -47,15 +136,70 @@ public class ChessMatch {
     public boolean getCheckMate() {
         return checkMate;
     }
+    public boolean getStalemate() {
+        return stalemate;
+    }
+
+    // Why the game is drawn (stalemate included) after the last player move, or null while it goes on
+    public DrawReason getDraw() {
+        return draw;
+    }
+    // The pawn that just moved two squares, while it can still be taken en passant
     public ChessPiece getEnPassantVulnerable() {
-        return enPassantVulnerable;
+        int sq = enPassantSquare();
+        return (sq < 0) ? null : board.piece(sq + ((currentPlayer == Color.WHITE) ? 8 : -8));
+    }
+
+    // The listener is not carried over by the copy constructor
+    public void setListener(MatchListener listener) {
+        this.listener = listener;
+    }
+
+    public int getHalfmoveClock() {
+        return halfmoveClock;
+    }
+
+    // Move number as written in FEN and PGN: starts at 1 and goes up after each black move
+    public int getFullmoveNumber() {
+        return (turn + 1) / 2;
+    }
+
+    // 64-bit Zobrist key of the position: placement, side to move, castling rights and en passant file
+    public long getZobristKey() {
+        return board.getZobristKey() ^ stateKey;
     }
 
     public void nextTurn() {
+        stateKey ^= Zobrist.SIDE;
         turn++;
         currentPlayer = (currentPlayer == Color.WHITE) ? Color.BLACK : Color.WHITE;
     }
 
+    public ChessPiece getPiece(int square) {
+        return board.piece(square);
+    }
+
+    public long getBitboard(Color color, PieceType type) {
+        return board.getBitboard(color, type);
+    }
+
+    public long getOccupancy() {
+        return board.getOccupancy();
+    }
+
+    public int getKingSquare(Color color) {
+        return kingSquares[color.ordinal()];
+    }
+
+    public int getPieceCount(Color color, PieceType type) {
+        return piecesOnTheBoard.count(color, type);
+    }
+
+    // Square of the i-th piece of a color and type on the board, 0 <= i < getPieceCount; the order is unspecified
+    public int getPieceSquare(Color color, PieceType type, int i) {
+        return piecesOnTheBoard.square(color, type, i);
+    }
+
     public ChessPiece [][] getPieces() {
         ChessPiece[][] pieces = new ChessPiece[board.getRows()][board.getColumns()];
         for (int i = 0; i < board.getRows(); i++) {
@@ -67,133 +211,265 @@ public class ChessMatch {
     }
 
 
+    // Throwing form of tryMove; returns the captured piece, if any
     public ChessPiece performChessMove(ChessPosition source, ChessPosition target) {
         Position sourcePosition = source.toPosition();
         Position targetPosition = target.toPosition();
-        validateSourcePosition(sourcePosition);
-        validateTargetPosition(sourcePosition, targetPosition);
-        Piece capturedPiece = makeMove(sourcePosition, targetPosition);
+        int status = tryMove(Bitboards.square(sourcePosition), Bitboards.square(targetPosition));
+        if (status != MoveStatus.OK) {
+            throw moveException(status, sourcePosition, targetPosition);
+        }
+        // The piece taken belongs to the player now to move
+        return capturedPiece(historyStates[historySize - 1], currentPlayer);
+    }
 
+    /**
+     * Plays the current player's move between two squares (0-63, see Bitboards) when it is legal, with the same
+     * effects as performChessMove, and otherwise leaves the match as it was. Returns MoveStatus.OK or the reason
+     * for the rejection; rejecting allocates nothing, so untrusted moves can be checked in bulk.
+     */
+    public int tryMove(int from, int to) {
+        int status = sourceStatus(from);
+        if (status != MoveStatus.OK) {
+            return status;
+        }
+        if (to < 0 || to >= 64) {
+            return MoveStatus.OFF_BOARD;
+        }
+        // Promotions are listed queen first
+        int move = legalMoves().find(from, to);
+        if (move == Move.NONE) {
+            // Only the rejected move's own piece pattern is looked at; nothing is played and taken back
+            boolean pseudoLegal = (board.piece(from).possibleMovesMask(board, from) & Bitboards.bit(to)) != 0;
+            return pseudoLegal ? MoveStatus.LEAVES_KING_IN_CHECK : MoveStatus.ILLEGAL_TARGET;
+        }
+        makeMove(move);
+
+        // Promotion (defaults to Queen, see replacePromotedPiece)
+        promotedSquare = Move.isPromotion(move) ? Move.to(move) : -1;
 
+        updateStatus();
 
-        if (testCheck(currentPlayer)) {
-            undoMove(sourcePosition, targetPosition, capturedPiece);
-            throw new ChessException("You cannot put yourself in check.");
+        if (listener != null) {
+            listener.movePlayed(this, move);
         }
-        ChessPiece movedPiece = (ChessPiece) board.piece(targetPosition);
+        return MoveStatus.OK;
+    }
 
-        // Promotion
-        promoted = null;
-        if (movedPiece instanceof Pawn) {
-            if ((movedPiece.getColor() == Color.WHITE && targetPosition.getRow() == 0) ||
-                (movedPiece.getColor() == Color.BLACK && targetPosition.getRow() == 7)) {
-                promoted = (ChessPiece) board.piece(targetPosition);
-                promoted = replacePromotedPiece("Q"); // Default promotion to Queen
+    // Status of moving the piece on a square, before looking at the target
+    private int sourceStatus(int from) {
+        if (from < 0 || from >= 64) {
+            return MoveStatus.OFF_BOARD;
+        }
+        ChessPiece piece = board.piece(from);
+        if (piece == null) {
+            return MoveStatus.NO_PIECE;
+        }
+        if (piece.getColor() != currentPlayer) {
+            return MoveStatus.NOT_YOUR_PIECE;
+        }
+        return (legalTargets(from) == 0) ? MoveStatus.NO_MOVES : MoveStatus.OK;
+    }
 
-            }
+    // The messages the validation methods have always thrown
+    private static ChessException moveException(int status, Position source, Position target) {
+        switch (status) {
+            case MoveStatus.NO_PIECE:
+                return new ChessException("There is no piece on source position " + source);
+            case MoveStatus.NOT_YOUR_PIECE:
+                return new ChessException("The chosen piece is not yours.");
+            case MoveStatus.NO_MOVES:
+                return new ChessException("There are no possible moves for the piece on source position " + source);
+            case MoveStatus.LEAVES_KING_IN_CHECK:
+                return new ChessException("You cannot put yourself in check.");
+            case MoveStatus.ILLEGAL_TARGET:
+                return new ChessException("The chosen piece cannot move to target position " + target);
+            default:
+                return new ChessException(MoveStatus.describe(status));
         }
+    }
 
-        check = (testCheck(getOpponentColor(currentPlayer))) ? true : false;
 
-        if (testCheckMate(getOpponentColor(currentPlayer))) {
-            checkMate = true;
-        } else {
-            nextTurn();
+    /**
+     * Plays a move taken from generateMoves and records what undoMove needs to take it back.
+     * The move is not validated and checkmate is not looked for, which keeps it cheap enough for search.
+     * Returns the captured piece, if any.
+     */
+    public ChessPiece makeMove(int move) {
+        if (historySize == historyMoves.length) {
+            growHistory();
+        }
+        // Playing the move redo would play keeps the rest of the redo line; any other move drops it, and so does
+        // a promotion played as the default queen where the line has another piece, even if replaced to match
+        if (historyEnd <= historySize || historyMoves[historySize] != move) {
+            historyEnd = historySize + 1;
         }
+        int from = Move.from(move);
+        int to = Move.to(move);
+        boolean pawnMove = board.piece(from).getType() == PieceType.PAWN;
+        int castlingRights = castlingRights();
+        int enPassantSquare = enPassantSquare();
+        historyMoves[historySize] = move;
+        historyKeys[historySize] = getZobristKey();
+        stateKey ^= Zobrist.CASTLING[castlingRights] ^ enPassantKey();
+        ChessPiece capturedPiece = movePieces(move);
+        historyStates[historySize++] = packState(castlingRights, enPassantSquare, check, capturedPiece, halfmoveClock);
+        halfmoveClock = (pawnMove || capturedPiece != null) ? 0 : halfmoveClock + 1;
 
+        board.setCastlingRights(castlingRights & MoveGenerator.CASTLING_MASKS[from] & MoveGenerator.CASTLING_MASKS[to]);
         // Special move: en passant
-        if (movedPiece instanceof Pawn &&
-            (targetPosition.getRow() == sourcePosition.getRow() - 2 || targetPosition.getRow() == sourcePosition.getRow() + 2)) {
-            enPassantVulnerable = movedPiece;
-        } else {
-            enPassantVulnerable = null; // Reset en passant vulnerability
-        }
+        board.setEnPassantSquare((Move.flags(move) == Move.DOUBLE_PUSH) ? (from + to) >>> 1 : -1);
 
-        return (ChessPiece) capturedPiece;
+        nextTurn();
+        stateKey ^= Zobrist.CASTLING[castlingRights()] ^ enPassantKey();
+        check = testCheck(currentPlayer);
+        legalMovesValid = false;
+        return capturedPiece;
     }
 
-    private Piece makeMove(Position sourcePosition, Position targetPosition) {
-        ChessPiece p = (ChessPiece) board.removePiece(sourcePosition);
-        p.increaseMoveCount();
-        Piece capturedPiece = board.removePiece(targetPosition);
-        board.placePiece(p, targetPosition);
+    /**
+     * Takes back the last move and keeps it for redo. Each ply's history entry holds everything the move
+     * destroyed (captured piece, castling rights, en passant square, check, halfmove clock) and the move itself
+     * names the promotion piece, so this takes constant time and copies nothing.
+     */
+    public void undo() {
+        undoMove();
+        if (listener != null) {
+            listener.moveUndone(this);
+        }
+    }
 
-        if (capturedPiece != null) {
-            piecesOnTheBoard.remove(capturedPiece);
-            capturedPieces.add((ChessPiece) capturedPiece);
+    // Plays again the last move taken back, unless another move has been played since
+    public void redo() {
+        if (historySize == historyEnd) {
+            throw new ChessException("There is no move to redo.");
+        }
+        int move = historyMoves[historySize];
+        makeMove(move);
+        updateStatus();
+        if (listener != null) {
+            listener.moveRedone(this, move);
         }
+    }
 
-        // Special move: castling
-        if (p instanceof King && targetPosition.getColumn() == sourcePosition.getColumn() + 2) {
-            Position rookSourcePosition = new Position(sourcePosition.getRow(), sourcePosition.getColumn() + 3);
-            Position rookTargetPosition = new Position(sourcePosition.getRow(), sourcePosition.getColumn() + 1);
-            ChessPiece rook = (ChessPiece) board.removePiece(rookSourcePosition);
-            rook.increaseMoveCount();
-            board.placePiece(rook, rookTargetPosition);
-        } else if (p instanceof King && targetPosition.getColumn() == sourcePosition.getColumn() - 2) {
-            Position rookSourcePosition = new Position(sourcePosition.getRow(), sourcePosition.getColumn() - 4);
-            Position rookTargetPosition = new Position(sourcePosition.getRow(), sourcePosition.getColumn() - 1);
-            ChessPiece rook = (ChessPiece) board.removePiece(rookSourcePosition);
-            rook.increaseMoveCount();
-            board.placePiece(rook, rookTargetPosition);
+    public boolean canUndo() {
+        return historySize > 0;
+    }
+
+    public boolean canRedo() {
+        return historySize < historyEnd;
+    }
+
+    // Takes back the last move played with makeMove or performChessMove, without telling the listener
+    public void undoMove() {
+        if (historySize == 0) {
+            throw new ChessException("There is no move to undo.");
         }
+        historySize--;
+        int state = historyStates[historySize];
+        unmovePieces(historyMoves[historySize], capturedPiece(state, currentPlayer));
+        board.setCastlingRights(state & 0xF);
+        board.setEnPassantSquare(((state >>> 4) & 0x7F) - 1);
+        check = (state & CHECK_BIT) != 0;
+        halfmoveClock = state >>> 16;
+        stateKey = historyKeys[historySize] ^ board.getZobristKey();
 
-        // Special move: en passant
-        if (p instanceof Pawn) {
-            if (sourcePosition.getColumn() != targetPosition.getColumn() && capturedPiece == null) {
-                Position pawnPosition;
-                if (p.getColor() == Color.WHITE) {
-                    pawnPosition = new Position(targetPosition.getRow() + 1, targetPosition.getColumn());
-                } else {
-                    pawnPosition = new Position(targetPosition.getRow() - 1, targetPosition.getColumn());
-                }
-                capturedPiece = board.removePiece(pawnPosition);
-                capturedPieces.add((ChessPiece) capturedPiece);
-                piecesOnTheBoard.remove(capturedPiece);
-            }
+        turn--;
+        currentPlayer = currentPlayer.opponent();
+        legalMovesValid = false;
+        if (snapshotPly > historySize) {
+            snapshot = null;
         }
+        // A position a move was played from always has legal moves
+        checkMate = false;
+        stalemate = false;
+        draw = null;
+        promotedSquare = -1;
+    }
 
-        return capturedPiece;
+    private void growHistory() {
+        int capacity = historyMoves.length * 2;
+        historyMoves = Arrays.copyOf(historyMoves, capacity);
+        historyStates = Arrays.copyOf(historyStates, capacity);
+        historyKeys = Arrays.copyOf(historyKeys, capacity);
+    }
+
+    // The piece a history entry's move took, given the color it had, or null
+    private static ChessPiece capturedPiece(int state, Color color) {
+        int captured = (state >>> 12) & 0xF;
+        return (captured == 0) ? null : ChessPiece.of(color, TYPES[captured - 1]);
+    }
+
+    // See CHECK_BIT for the layout
+    private static int packState(int castlingRights, int enPassantSquare, boolean check, ChessPiece captured,
+                                 int halfmoveClock) {
+        int state = castlingRights | (enPassantSquare + 1) << 4 | Math.min(halfmoveClock, 0xFFFF) << 16;
+        if (check) {
+            state |= CHECK_BIT;
+        }
+        if (captured != null) {
+            state |= (captured.getType().ordinal() + 1) << 12;
+        }
+        return state;
     }
 
-    private void undoMove(Position sourcePosition, Position targetPosition, Piece capturedPiece) {
-        ChessPiece p = (ChessPiece)board.removePiece(targetPosition);
-        p.decreaseMoveCount();
-        board.placePiece(p, sourcePosition);
+    private ChessPiece movePieces(int move) {
+        int from = Move.from(move);
+        int to = Move.to(move);
+        Color color = board.piece(from).getColor();
+
+        // Special move: en passant
+        int capturedSquare = (Move.flags(move) == Move.EN_PASSANT) ? to + ((color == Color.WHITE) ? 8 : -8) : to;
+        ChessPiece capturedPiece = board.piece(capturedSquare);
         if (capturedPiece != null) {
-            board.placePiece(capturedPiece, targetPosition);
-            capturedPieces.remove(capturedPiece);
-            piecesOnTheBoard.add((ChessPiece) capturedPiece);
+            removePiece(capturedSquare);
+        }
+
+        // Special move: promotion
+        if (Move.isPromotion(move)) {
+            removePiece(from);
+            addPiece(ChessPiece.of(color, Move.promotion(move)), to);
+        } else {
+            relocatePiece(from, to);
         }
 
         // Special move: castling
-        if (p instanceof King && targetPosition.getColumn() == sourcePosition.getColumn() + 2) {
-            Position rookSourcePosition = new Position(sourcePosition.getRow(), sourcePosition.getColumn() + 1);
-            Position rookTargetPosition = new Position(sourcePosition.getRow(), sourcePosition.getColumn() + 3);
-            ChessPiece rook = (ChessPiece) board.removePiece(rookSourcePosition);
-            rook.decreaseMoveCount();
-            board.placePiece(rook, rookTargetPosition);
-        } else if (p instanceof King && targetPosition.getColumn() == sourcePosition.getColumn() - 2) {
-            Position rookSourcePosition = new Position(sourcePosition.getRow(), sourcePosition.getColumn() - 1);
-            Position rookTargetPosition = new Position(sourcePosition.getRow(), sourcePosition.getColumn() - 4);
-            ChessPiece rook = (ChessPiece) board.removePiece(rookSourcePosition);
-            rook.decreaseMoveCount();
-            board.placePiece(rook, rookTargetPosition);
+        if (Move.flags(move) == Move.KING_CASTLE) {
+            relocatePiece(from + 3, from + 1);
+        } else if (Move.flags(move) == Move.QUEEN_CASTLE) {
+            relocatePiece(from - 4, from - 1);
         }
 
-        // Special move: en passant
-        if (p instanceof Pawn) {
-            if (sourcePosition.getColumn() != targetPosition.getColumn() && capturedPiece == null) {
-                ChessPiece pawn = (ChessPiece) board.removePiece(targetPosition);
-                Position pawnPosition;
-                if (p.getColor() == Color.WHITE) {
-                    pawnPosition = new Position(3, targetPosition.getColumn());
-                } else {
-                    pawnPosition = new Position(4, targetPosition.getColumn());
-                }
-                board.placePiece(pawn, pawnPosition);
+        return capturedPiece;
+    }
+
+    private void unmovePieces(int move, ChessPiece capturedPiece) {
+        int from = Move.from(move);
+        int to = Move.to(move);
+        Color color = board.piece(to).getColor();
 
+        // Special move: promotion
+        if (Move.isPromotion(move)) {
+            removePiece(to);
+            addPiece(ChessPiece.of(color, PieceType.PAWN), from);
+        } else {
+            relocatePiece(to, from);
+        }
+
+        if (capturedPiece != null) {
+            // Special move: en passant
+            int capturedSquare = to;
+            if (Move.flags(move) == Move.EN_PASSANT) {
+                capturedSquare = to + ((color == Color.WHITE) ? 8 : -8);
             }
+            addPiece(capturedPiece, capturedSquare);
+        }
+
+        // Special move: castling
+        if (Move.flags(move) == Move.KING_CASTLE) {
+            relocatePiece(from + 1, from + 3);
+        } else if (Move.flags(move) == Move.QUEEN_CASTLE) {
+            relocatePiece(from - 1, from - 4);
         }
     }
 
@@ -201,149 +477,589 @@ public class ChessMatch {
         if (!board.thereIsAPiece(position)){
             throw new ChessException("There is no piece on source position " + position);
         }
-        if (currentPlayer != ((ChessPiece)board.piece(position)).getColor()) {
-            throw new ChessException("The chosen piece is not yours.");
-        }
-        if (!board.piece(position).isThereAnyPossibleMove()){
-            throw new ChessException("There are no possible moves for the piece on source position " + position);
+        int status = sourceStatus(Bitboards.square(position));
+        if (status != MoveStatus.OK) {
+            throw moveException(status, position, null);
         }
     }
 
     public boolean[][] possibleMoves(ChessPosition source) {
+        return Bitboards.toMatrix(possibleMovesMask(source));
+    }
+
+    // Same as possibleMoves, as a bitboard of target squares
+    public long possibleMovesMask(ChessPosition source) {
         Position position = source.toPosition();
         validateSourcePosition(position);
-        return board.piece(position).possibleMoves();
+        return legalTargets(Bitboards.square(position));
+    }
+
+    /**
+     * Immutable copy of the current position. The first call builds it from the bitboards; after that each call
+     * only plays the moves made since the previous one onto it, so it takes constant time per move and the
+     * snapshots of one game form a chain through getParent. Taking back a move past the last snapshot starts over.
+     */
+    public PositionSnapshot snapshot() {
+        if (snapshot == null) {
+            snapshot = PositionSnapshot.of(this);
+            snapshotPly = historySize;
+        }
+        while (snapshotPly < historySize) {
+            snapshot = snapshot.play(historyMoves[snapshotPly++]);
+        }
+        return snapshot;
+    }
+
+    // Writes the current player's legal moves into a caller-owned list, replacing its contents
+    public void generateMoves(MoveList list) {
+        if (legalMovesValid) {
+            list.copyFrom(legalMoves);
+        } else {
+            moveGenerator.generateLegalMoves(currentPlayer, enPassantSquare(), castlingRights(), list);
+        }
+    }
+
+    // The cached legal moves, generated on first use after the position changed
+    private MoveList legalMoves() {
+        if (!legalMovesValid) {
+            moveGenerator.generateLegalMoves(currentPlayer, enPassantSquare(), castlingRights(), legalMoves);
+            legalMovesValid = true;
+        }
+        return legalMoves;
     }
 
     public void validateTargetPosition(Position sourcePosition, Position targetPosition) {
-        if (!board.piece(sourcePosition).possibleMove(targetPosition)) {
-            throw new ChessException("The chosen piece cannot move to target position " + targetPosition);
+        if ((legalTargets(Bitboards.square(sourcePosition)) & Bitboards.bit(Bitboards.square(targetPosition))) == 0) {
+            if (board.piece(sourcePosition).possibleMove(board, sourcePosition, targetPosition)) {
+                throw moveException(MoveStatus.LEAVES_KING_IN_CHECK, sourcePosition, targetPosition);
+            }
+            throw moveException(MoveStatus.ILLEGAL_TARGET, sourcePosition, targetPosition);
         }
     }
 
-    private Color getOpponentColor(Color currentPlayer) {
-        return (currentPlayer == Color.WHITE) ? Color.BLACK : Color.WHITE;
+    // Target squares of the current player's legal moves from one square
+    private long legalTargets(int from) {
+        MoveList moves = legalMoves();
+        long targets = 0L;
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            if (Move.from(move) == from) {
+                targets |= Bitboards.bit(Move.to(move));
+            }
+        }
+        return targets;
     }
 
-    private ChessPiece king(Color color) {
-        List<ChessPiece> list = piecesOnTheBoard.stream()
-                .filter(x -> x.getColor() == color)
-                .filter(x -> x instanceof King)
-                .toList();
-        for (Piece p : list) {
-            if (p instanceof  King)
-            return (ChessPiece) p;
+    // Only the current player's moves are cached
+    private boolean hasLegalMoves(Color color) {
+        if (color == currentPlayer) {
+            return !legalMoves().isEmpty();
         }
-        throw new IllegalStateException("There is no " + color + " king on the board.");
+        return moveGenerator.countLegalMoves(color, enPassantSquare(), castlingRights(), new MoveList()) > 0;
     }
 
-    private boolean testCheck(Color color) {
-        Position kingPosition = king(color).getChessPosition().toPosition();
-        List<Piece> opponentPieces = piecesOnTheBoard.stream().filter(x -> ((ChessPiece)x).getColor() == getOpponentColor(color)).collect(Collectors.toList());
-        for (Piece p : opponentPieces) {
-            boolean[][] mat = p.possibleMoves();
-            if (mat[kingPosition.getRow()][kingPosition.getColumn()]) {
-                return true;
+    private long computeStateKey() {
+        long key = Zobrist.CASTLING[castlingRights()] ^ enPassantKey();
+        return (currentPlayer == Color.BLACK) ? key ^ Zobrist.SIDE : key;
+    }
+
+    // The en passant file only counts when the side to move has a pawn that could capture there
+    private long enPassantKey() {
+        int sq = enPassantSquare();
+        if (sq < 0 || (Bitboards.PAWN_ATTACKS[currentPlayer.opponent().ordinal()][sq]
+                & board.getBitboard(currentPlayer, PieceType.PAWN)) == 0) {
+            return 0L;
+        }
+        return Zobrist.EN_PASSANT[Bitboards.column(sq)];
+    }
+
+    /**
+     * Replaces the whole position, clearing the move history and the captured pieces.
+     * The halfmove clock and fullmove number fields may be left out; they default to 0 and 1.
+     * The text is read in place, one char at a time, and the pieces are the shared flyweights,
+     * so a well-formed FEN creates no objects. Every field is checked before the match is touched,
+     * so an invalid FEN throws and leaves the current position, history and status as they were.
+     */
+    public void loadFen(CharSequence fen) {
+        int n = fen.length();
+        int i = 0;
+
+        // 1. Piece placement, rank 8 first; read again below, once the rest of the FEN is known to be valid
+        int row = 0;
+        int column = 0;
+        for (; i < n && fen.charAt(i) != ' '; i++) {
+            char c = fen.charAt(i);
+            if (c == '/') {
+                if (column != 8 || ++row > 7) {
+                    throw invalidFen(fen, "wrong rank length or too many ranks");
+                }
+                column = 0;
+            } else if (c >= '1' && c <= '8') {
+                column += c - '0';
+            } else {
+                PieceType type = fenType(Character.toUpperCase(c));
+                if (type == null || column > 7) {
+                    throw invalidFen(fen, "unexpected '" + c + "' in the piece placement");
+                }
+                if (type == PieceType.PAWN && (row == 0 || row == 7)) {
+                    throw invalidFen(fen, "pawn on the first or last rank");
+                }
+                column++;
+            }
+            if (column > 8) {
+                throw invalidFen(fen, "rank " + (8 - row) + " is longer than eight squares");
+            }
+        }
+        if (row != 7 || column != 8) {
+            throw invalidFen(fen, "the piece placement must have eight full ranks");
+        }
+        if (Long.bitCount(fenBitboard(fen, Color.WHITE, PieceType.KING)) != 1
+                || Long.bitCount(fenBitboard(fen, Color.BLACK, PieceType.KING)) != 1) {
+            throw invalidFen(fen, "each side needs exactly one king");
+        }
+
+        // 2. Side to move
+        i = skipSpaces(fen, i);
+        char side = (i < n) ? fen.charAt(i++) : ' ';
+        if (side != 'w' && side != 'b') {
+            throw invalidFen(fen, "the side to move must be w or b");
+        }
+        Color player = (side == 'w') ? Color.WHITE : Color.BLACK;
+
+        // 3. Castling rights
+        int rights = 0;
+        i = skipSpaces(fen, i);
+        if (i < n && fen.charAt(i) == '-') {
+            i++;
+        } else {
+            for (; i < n && fen.charAt(i) != ' '; i++) {
+                char c = fen.charAt(i);
+                Color color = Character.isUpperCase(c) ? Color.WHITE : Color.BLACK;
+                int kingSquare = (color == Color.WHITE) ? 60 : 4;
+                int rookSquare;
+                int right;
+                if (Character.toUpperCase(c) == 'K') {
+                    rookSquare = kingSquare + 3;
+                    right = (color == Color.WHITE) ? MoveGenerator.WHITE_KINGSIDE : MoveGenerator.BLACK_KINGSIDE;
+                } else if (Character.toUpperCase(c) == 'Q') {
+                    rookSquare = kingSquare - 4;
+                    right = (color == Color.WHITE) ? MoveGenerator.WHITE_QUEENSIDE : MoveGenerator.BLACK_QUEENSIDE;
+                } else {
+                    throw invalidFen(fen, "unexpected '" + c + "' in the castling rights");
+                }
+                if ((rights & right) != 0) {
+                    throw invalidFen(fen, "castling right '" + c + "' given twice");
+                }
+                rights |= right;
+                if ((fenBitboard(fen, color, PieceType.KING) & Bitboards.bit(kingSquare)) == 0
+                        || (fenBitboard(fen, color, PieceType.ROOK) & Bitboards.bit(rookSquare)) == 0) {
+                    throw invalidFen(fen, "castling right '" + c + "' without the king and rook on their initial squares");
+                }
+            }
+        }
+
+        // 4. En passant target square
+        int enPassant = -1;
+        i = skipSpaces(fen, i);
+        if (i < n && fen.charAt(i) == '-') {
+            i++;
+        } else if (i + 1 < n) {
+            int epColumn = fen.charAt(i) - 'a';
+            int epRank = fen.charAt(i + 1) - '1';
+            i += 2;
+            int expectedRank = (player == Color.WHITE) ? 5 : 2;
+            if (epColumn < 0 || epColumn > 7 || epRank != expectedRank) {
+                throw invalidFen(fen, "bad en passant square");
+            }
+            // The pawn that just moved two squares stands one rank past the target square
+            int pawnSquare = Bitboards.square(7 - epRank, epColumn) + ((player == Color.WHITE) ? 8 : -8);
+            if ((fenBitboard(fen, player.opponent(), PieceType.PAWN) & Bitboards.bit(pawnSquare)) == 0) {
+                throw invalidFen(fen, "no pawn to capture en passant");
+            }
+            enPassant = pawnSquare + ((player == Color.WHITE) ? -8 : 8);
+        } else {
+            throw invalidFen(fen, "missing en passant square");
+        }
+
+        // 5-6. Halfmove clock and fullmove number
+        i = skipSpaces(fen, i);
+        int halfmoves = 0;
+        int fullmove = 1;
+        if (i < n) {
+            int start = i;
+            for (; i < n && fen.charAt(i) != ' '; i++) {
+                halfmoves = halfmoves * 10 + digit(fen, i, start);
+            }
+            i = skipSpaces(fen, i);
+            if (i < n) {
+                fullmove = 0;
+                start = i;
+                for (; i < n && fen.charAt(i) != ' '; i++) {
+                    fullmove = fullmove * 10 + digit(fen, i, start);
+                }
+                i = skipSpaces(fen, i);
+                if (i < n) {
+                    throw invalidFen(fen, "unexpected text after the fullmove number");
+                }
+            }
+        }
+
+        int opponentKing = Long.numberOfTrailingZeros(fenBitboard(fen, player.opponent(), PieceType.KING));
+        if (fenAttacked(fen, opponentKing, player)) {
+            throw invalidFen(fen, "the side not to move is in check");
+        }
+
+        // Valid: replace the position
+        for (long occupied = board.getOccupancy(); occupied != 0; occupied &= occupied - 1) {
+            board.removePiece(Long.numberOfTrailingZeros(occupied));
+        }
+        piecesOnTheBoard.clear();
+        historySize = 0;
+        historyEnd = 0;
+        promotedSquare = -1;
+        legalMovesValid = false;
+        snapshot = null;
+        int square = 0;
+        for (i = 0; i < n && fen.charAt(i) != ' '; i++) {
+            char c = fen.charAt(i);
+            if (c >= '1' && c <= '8') {
+                square += c - '0';
+            } else if (c != '/') {
+                addPiece(ChessPiece.of(Character.isUpperCase(c) ? Color.WHITE : Color.BLACK,
+                        fenType(Character.toUpperCase(c))), square++);
+            }
+        }
+        currentPlayer = player;
+        board.setCastlingRights(rights);
+        board.setEnPassantSquare(enPassant);
+        halfmoveClock = halfmoves;
+        turn = 2 * Math.max(fullmove, 1) - ((currentPlayer == Color.WHITE) ? 1 : 0);
+
+        stateKey = computeStateKey();
+        check = testCheck(currentPlayer);
+        updateStatus();
+    }
+
+    public String toFen() {
+        StringBuilder sb = new StringBuilder(90);
+        appendFen(sb);
+        return sb.toString();
+    }
+
+    // Writes the position in Forsyth-Edwards Notation to a caller-owned builder
+    public void appendFen(StringBuilder sb) {
+        long occupied = board.getOccupancy();
+        for (int row = 0; row < 8; row++) {
+            int empty = 0;
+            for (int column = 0; column < 8; column++) {
+                int sq = Bitboards.square(row, column);
+                if ((occupied & Bitboards.bit(sq)) == 0) {
+                    empty++;
+                    continue;
+                }
+                ChessPiece p = board.piece(sq);
+                if (empty > 0) {
+                    sb.append(empty);
+                    empty = 0;
+                }
+                char c = FEN_PIECES.charAt(p.getType().ordinal());
+                sb.append((p.getColor() == Color.WHITE) ? c : Character.toLowerCase(c));
+            }
+            if (empty > 0) {
+                sb.append(empty);
+            }
+            if (row < 7) {
+                sb.append('/');
             }
         }
-        return false;
+
+        sb.append(' ').append((currentPlayer == Color.WHITE) ? 'w' : 'b').append(' ');
+
+        int rights = castlingRights();
+        if (rights == 0) {
+            sb.append('-');
+        } else {
+            if ((rights & MoveGenerator.WHITE_KINGSIDE) != 0) sb.append('K');
+            if ((rights & MoveGenerator.WHITE_QUEENSIDE) != 0) sb.append('Q');
+            if ((rights & MoveGenerator.BLACK_KINGSIDE) != 0) sb.append('k');
+            if ((rights & MoveGenerator.BLACK_QUEENSIDE) != 0) sb.append('q');
+        }
+
+        int ep = enPassantSquare();
+        sb.append(' ');
+        if (ep < 0) {
+            sb.append('-');
+        } else {
+            sb.append((char) ('a' + Bitboards.column(ep))).append(8 - Bitboards.row(ep));
+        }
+
+        sb.append(' ').append(halfmoveClock).append(' ').append(getFullmoveNumber());
     }
 
-    private boolean testCheckMate(Color color) {
-        if (!testCheck(color)) {
-            return false; // Not in check, so not checkmate
+    private static int skipSpaces(CharSequence fen, int i) {
+        while (i < fen.length() && fen.charAt(i) == ' ') {
+            i++;
         }
-        List<Piece> list = piecesOnTheBoard.stream().filter(x ->((ChessPiece)x).getColor() == color).collect(Collectors.toList());
-        for (Piece p : list) {
-            boolean[][] mat = p.possibleMoves();
-            for (int i = 0; i < board.getRows(); i++) {
-                for (int j = 0; j < board.getColumns(); j++) {
-                    if (mat[i][j]) {
-                        Position sourcePosition = ((ChessPiece)p).getChessPosition().toPosition();
-                        Position targetPosition = new Position(i, j);
-                        Piece capturedPiece = makeMove(sourcePosition, targetPosition);
-                        boolean isCheck = testCheck(color);
-                        undoMove(sourcePosition, targetPosition, capturedPiece);
-                        if (!isCheck) {
-                            return false; // Found a valid move that does not result in check
-                        }
-                    }
+        return i;
+    }
 
+    // Digit of a move counter that starts at index start; longer counters could overflow the clock and turn
+    private static int digit(CharSequence fen, int i, int start) {
+        char c = fen.charAt(i);
+        if (c < '0' || c > '9') {
+            throw invalidFen(fen, "move counters must be numbers");
+        }
+        if (i - start >= MAX_COUNTER_DIGITS) {
+            throw invalidFen(fen, "move counters are limited to " + MAX_COUNTER_DIGITS + " digits");
+        }
+        return c - '0';
+    }
 
+    // Squares of one color's pieces of a type in an already checked FEN piece placement
+    private static long fenBitboard(CharSequence fen, Color color, PieceType type) {
+        char letter = FEN_PIECES.charAt(type.ordinal());
+        if (color == Color.BLACK) {
+            letter = Character.toLowerCase(letter);
+        }
+        long bitboard = 0L;
+        int square = 0;
+        for (int i = 0; i < fen.length() && fen.charAt(i) != ' '; i++) {
+            char c = fen.charAt(i);
+            if (c >= '1' && c <= '8') {
+                square += c - '0';
+            } else if (c != '/') {
+                if (c == letter) {
+                    bitboard |= Bitboards.bit(square);
                 }
+                square++;
+            }
+        }
+        return bitboard;
+    }
+
+    // ChessBoard.isSquareAttacked for a FEN that has not been loaded yet
+    private static boolean fenAttacked(CharSequence fen, int square, Color byColor) {
+        if ((Bitboards.PAWN_ATTACKS[byColor.opponent().ordinal()][square] & fenBitboard(fen, byColor, PieceType.PAWN)) != 0
+                || (Bitboards.KNIGHT_ATTACKS[square] & fenBitboard(fen, byColor, PieceType.KNIGHT)) != 0
+                || (Bitboards.KING_ATTACKS[square] & fenBitboard(fen, byColor, PieceType.KING)) != 0) {
+            return true;
+        }
+        long occupied = 0L;
+        for (PieceType type : TYPES) {
+            occupied |= fenBitboard(fen, Color.WHITE, type) | fenBitboard(fen, Color.BLACK, type);
+        }
+        long queens = fenBitboard(fen, byColor, PieceType.QUEEN);
+        long orthogonal = fenBitboard(fen, byColor, PieceType.ROOK) | queens;
+        long diagonal = fenBitboard(fen, byColor, PieceType.BISHOP) | queens;
+        return (Bitboards.rookAttacks(square, occupied) & orthogonal) != 0
+                || (Bitboards.bishopAttacks(square, occupied) & diagonal) != 0;
+    }
+
+    private static PieceType fenType(char c) {
+        int index = FEN_PIECES.indexOf(c);
+        return (index < 0) ? null : TYPES[index];
+    }
+
+    private static ChessException invalidFen(CharSequence fen, String reason) {
+        return new ChessException("Invalid FEN (" + reason + "): " + fen);
+    }
+
+    ChessBoard getBoard() {
+        return board;
+    }
+
+    // Square a pawn could capture onto en passant this ply, or -1
+    int enPassantSquare() {
+        return board.getEnPassantSquare();
+    }
+
+    // Castling rights still held; a king or rook move, or a rook captured on its corner, clears them for good
+    int castlingRights() {
+        return board.getCastlingRights();
+    }
+
+    boolean testCheck(Color color) {
+        return board.isSquareAttacked(kingSquares[color.ordinal()], color.opponent());
+    }
+
+    boolean testCheckMate(Color color) {
+        return testCheck(color) && !hasLegalMoves(color);
+    }
+
+    // Game status after a player's move; the legal moves it reads stay cached for validating the next move
+    private void updateStatus() {
+        checkMate = testCheckMate(currentPlayer);
+        stalemate = !check && !hasLegalMoves(currentPlayer);
+        draw = stalemate ? DrawReason.STALEMATE : checkMate ? null : testDraw();
+    }
+
+    /**
+     * Draw by rule in the current position, or null: threefold repetition, the fifty-move rule (100 plies without
+     * a capture or pawn move) or insufficient material. Stalemate is left to getStalemate, since it needs the
+     * legal moves. Nothing here scans the board: repetitions are looked for among the history keys since the last
+     * irreversible move only, and material comes from the piece counts the registry keeps.
+     */
+    public DrawReason testDraw() {
+        if (halfmoveClock >= 100) {
+            return DrawReason.FIFTY_MOVE_RULE;
+        }
+        if (repetitions(2) == 2) {
+            return DrawReason.THREEFOLD_REPETITION;
+        }
+        return hasInsufficientMaterial() ? DrawReason.INSUFFICIENT_MATERIAL : null;
+    }
+
+    // The position occurred before with the same player to move; a search can score it as a draw
+    public boolean isRepetition() {
+        return repetitions(1) == 1;
+    }
+
+    // Earlier occurrences of the current position, counting up to limit; only the same side to move can match
+    private int repetitions(int limit) {
+        long key = getZobristKey();
+        int oldest = Math.max(0, historySize - halfmoveClock);
+        int count = 0;
+        for (int i = historySize - 2; i >= oldest && count < limit; i -= 2) {
+            if (historyKeys[i] == key) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    // Neither side can ever mate: bare kings, a single minor piece, or only bishops all on one square color
+    public boolean hasInsufficientMaterial() {
+        for (Color color : Color.values()) {
+            if (piecesOnTheBoard.count(color, PieceType.PAWN) + piecesOnTheBoard.count(color, PieceType.ROOK)
+                    + piecesOnTheBoard.count(color, PieceType.QUEEN) > 0) {
+                return false;
             }
         }
-        return true; // No valid moves, so it's checkmate
+        int knights = piecesOnTheBoard.count(Color.WHITE, PieceType.KNIGHT) + piecesOnTheBoard.count(Color.BLACK, PieceType.KNIGHT);
+        int bishops = piecesOnTheBoard.count(Color.WHITE, PieceType.BISHOP) + piecesOnTheBoard.count(Color.BLACK, PieceType.BISHOP);
+        if (knights + bishops <= 1) {
+            return true;
+        }
+        if (knights > 0) {
+            return false;
+        }
+        long bishopSquares = board.getBitboard(Color.WHITE, PieceType.BISHOP) | board.getBitboard(Color.BLACK, PieceType.BISHOP);
+        return (bishopSquares & DARK_SQUARES) == 0 || (bishopSquares & ~DARK_SQUARES) == 0;
     }
 
     private void placeNewPiece(char column, int row, ChessPiece piece) {
-        board.placePiece(piece, new ChessPosition(column, row).toPosition());
-        piecesOnTheBoard.add(piece);
+        addPiece(piece, Bitboards.square(new ChessPosition(column, row).toPosition()));
+    }
+
+    // The only three ways pieces change squares, so the board, the registry and the king squares stay in step
+    private void addPiece(ChessPiece piece, int square) {
+        board.placePiece(piece, square);
+        piecesOnTheBoard.add(piece, square);
+        if (piece.getType() == PieceType.KING) {
+            kingSquares[piece.getColor().ordinal()] = square;
+        }
+    }
+
+    private void removePiece(int square) {
+        piecesOnTheBoard.remove((ChessPiece) board.removePiece(square), square);
+    }
+
+    private void relocatePiece(int from, int to) {
+        ChessPiece piece = (ChessPiece) board.removePiece(from);
+        board.placePiece(piece, to);
+        piecesOnTheBoard.move(piece, from, to);
+        if (piece.getType() == PieceType.KING) {
+            kingSquares[piece.getColor().ordinal()] = to;
+        }
     }
 
     public ChessPiece replacePromotedPiece(String type) {
-        if (promoted == null) {
+        if (promotedSquare < 0) {
             throw new ChessException("There is no piece to be promoted.");
         }
 
         if (!type.equals("B") && !type.equals("N") && !type.equals("R") && !type.equals("Q")) {
-            return promoted; // Default to Queen if invalid type
+            return getPromoted(); // Default to Queen if invalid type
+        }
+        return replacePromotedPiece(promotionType(type));
+    }
+
+    public ChessPiece replacePromotedPiece(PieceType type) {
+        if (promotedSquare < 0) {
+            throw new ChessException("There is no piece to be promoted.");
+        }
+        if (type != PieceType.KNIGHT && type != PieceType.BISHOP && type != PieceType.ROOK && type != PieceType.QUEEN) {
+            throw new ChessException("A pawn can only be promoted to a knight, bishop, rook or queen.");
+        }
+        ChessPiece newPiece = ChessPiece.of(board.piece(promotedSquare).getColor(), type);
+        removePiece(promotedSquare);
+        addPiece(newPiece, promotedSquare);
+        // The recorded move names the piece chosen, so undo and redo bring it back; a different piece also
+        // makes the rest of a redo line unreachable (a copied match has no record of the move)
+        if (historySize > 0) {
+            int last = historyMoves[historySize - 1];
+            int chosen = Move.encode(Move.from(last), Move.to(last), Move.flags(last), type);
+            if (chosen != last) {
+                historyMoves[historySize - 1] = chosen;
+                historyEnd = historySize;
+            }
         }
-        Position pos = promoted.getChessPosition().toPosition();
-        Piece p =board.removePiece(pos);
-        piecesOnTheBoard.remove(p);
 
-        ChessPiece newPiece = newPiece(type, promoted.getColor());
-        board.placePiece(newPiece, pos);
-        piecesOnTheBoard.add(newPiece);
+        // A different piece gives different checks, so the opponent's moves and the match status are redone
+        legalMovesValid = false;
+        snapshot = null; // A snapshot taken since the move still has the old piece
+        check = testCheck(currentPlayer);
+        updateStatus();
 
+        if (listener != null) {
+            listener.pieceReplaced(this, type);
+        }
         return newPiece;
 
     }
 
-    private ChessPiece newPiece(String type, Color color) {
-        if (type.equals("B")) return new Bishop(board, color);
-        if (type.equals("N")) return new Knight(board, color);
-        if (type.equals("R")) return new Rook(board, color);
-        if (type.equals("Q")) return new Queen(board, color);
-        return new Queen(board, color);
+    private PieceType promotionType(String type) {
+        if (type.equals("B")) return PieceType.BISHOP;
+        if (type.equals("N")) return PieceType.KNIGHT;
+        if (type.equals("R")) return PieceType.ROOK;
+        return PieceType.QUEEN;
     }
 
     private void initialSetup() {
         // Initial setup of the chess pieces on the board
-        placeNewPiece('a', 1, new Rook(board, Color.WHITE));
-        placeNewPiece('b', 1, new Knight(board, Color.WHITE));
-        placeNewPiece('c', 1, new Bishop(board, Color.WHITE));
-        placeNewPiece('d', 1, new Queen(board, Color.WHITE));
-        placeNewPiece('e', 1, new King(board, Color.WHITE, this));
-        placeNewPiece('f', 1, new Bishop(board, Color.WHITE));
-        placeNewPiece('g', 1, new Knight(board, Color.WHITE));
-        placeNewPiece('h', 1, new Rook(board, Color.WHITE));
-        placeNewPiece('a', 2, new Pawn(board, Color.WHITE, this));
-        placeNewPiece('b', 2, new Pawn(board, Color.WHITE, this));
-        placeNewPiece('c', 2, new Pawn(board, Color.WHITE, this));
-        placeNewPiece('d', 2, new Pawn(board, Color.WHITE, this));
-        placeNewPiece('e', 2, new Pawn(board, Color.WHITE, this));
-        placeNewPiece('f', 2, new Pawn(board, Color.WHITE, this));
-        placeNewPiece('g', 2, new Pawn(board, Color.WHITE, this));
-        placeNewPiece('h', 2, new Pawn(board, Color.WHITE, this));
-
-        placeNewPiece('a', 8, new Rook(board, Color.BLACK));
-        placeNewPiece('b', 8, new Knight(board, Color.BLACK));
-        placeNewPiece('c', 8, new Bishop(board, Color.BLACK));
-        placeNewPiece('d', 8, new Queen(board, Color.BLACK));
-        placeNewPiece('e', 8, new King(board, Color.BLACK, this));
-        placeNewPiece('f', 8, new Bishop(board, Color.BLACK));
-        placeNewPiece('g', 8, new Knight(board, Color.BLACK));
-        placeNewPiece('h', 8, new Rook(board, Color.BLACK));
-        placeNewPiece('a', 7, new Pawn(board, Color.BLACK, this));
-        placeNewPiece('b', 7, new Pawn(board, Color.BLACK, this));
-        placeNewPiece('c', 7, new Pawn(board, Color.BLACK, this));
-        placeNewPiece('d', 7, new Pawn(board, Color.BLACK, this));
-        placeNewPiece('e', 7, new Pawn(board, Color.BLACK, this));
-        placeNewPiece('f', 7, new Pawn(board, Color.BLACK, this));
-        placeNewPiece('g', 7, new Pawn(board, Color.BLACK, this));
-        placeNewPiece('h', 7, new Pawn(board, Color.BLACK, this));
+        placeNewPiece('a', 1, ChessPiece.of(Color.WHITE, PieceType.ROOK));
+        placeNewPiece('b', 1, ChessPiece.of(Color.WHITE, PieceType.KNIGHT));
+        placeNewPiece('c', 1, ChessPiece.of(Color.WHITE, PieceType.BISHOP));
+        placeNewPiece('d', 1, ChessPiece.of(Color.WHITE, PieceType.QUEEN));
+        placeNewPiece('e', 1, ChessPiece.of(Color.WHITE, PieceType.KING));
+        placeNewPiece('f', 1, ChessPiece.of(Color.WHITE, PieceType.BISHOP));
+        placeNewPiece('g', 1, ChessPiece.of(Color.WHITE, PieceType.KNIGHT));
+        placeNewPiece('h', 1, ChessPiece.of(Color.WHITE, PieceType.ROOK));
+        placeNewPiece('a', 2, ChessPiece.of(Color.WHITE, PieceType.PAWN));
+        placeNewPiece('b', 2, ChessPiece.of(Color.WHITE, PieceType.PAWN));
+        placeNewPiece('c', 2, ChessPiece.of(Color.WHITE, PieceType.PAWN));
+        placeNewPiece('d', 2, ChessPiece.of(Color.WHITE, PieceType.PAWN));
+        placeNewPiece('e', 2, ChessPiece.of(Color.WHITE, PieceType.PAWN));
+        placeNewPiece('f', 2, ChessPiece.of(Color.WHITE, PieceType.PAWN));
+        placeNewPiece('g', 2, ChessPiece.of(Color.WHITE, PieceType.PAWN));
+        placeNewPiece('h', 2, ChessPiece.of(Color.WHITE, PieceType.PAWN));
+
+        placeNewPiece('a', 8, ChessPiece.of(Color.BLACK, PieceType.ROOK));
+        placeNewPiece('b', 8, ChessPiece.of(Color.BLACK, PieceType.KNIGHT));
+        placeNewPiece('c', 8, ChessPiece.of(Color.BLACK, PieceType.BISHOP));
+        placeNewPiece('d', 8, ChessPiece.of(Color.BLACK, PieceType.QUEEN));
+        placeNewPiece('e', 8, ChessPiece.of(Color.BLACK, PieceType.KING));
+        placeNewPiece('f', 8, ChessPiece.of(Color.BLACK, PieceType.BISHOP));
+        placeNewPiece('g', 8, ChessPiece.of(Color.BLACK, PieceType.KNIGHT));
+        placeNewPiece('h', 8, ChessPiece.of(Color.BLACK, PieceType.ROOK));
+        placeNewPiece('a', 7, ChessPiece.of(Color.BLACK, PieceType.PAWN));
+        placeNewPiece('b', 7, ChessPiece.of(Color.BLACK, PieceType.PAWN));
+        placeNewPiece('c', 7, ChessPiece.of(Color.BLACK, PieceType.PAWN));
+        placeNewPiece('d', 7, ChessPiece.of(Color.BLACK, PieceType.PAWN));
+        placeNewPiece('e', 7, ChessPiece.of(Color.BLACK, PieceType.PAWN));
+        placeNewPiece('f', 7, ChessPiece.of(Color.BLACK, PieceType.PAWN));
+        placeNewPiece('g', 7, ChessPiece.of(Color.BLACK, PieceType.PAWN));
+        placeNewPiece('h', 7, ChessPiece.of(Color.BLACK, PieceType.PAWN));
 
 
     }
@@ -3,38 +3,87 @@ package chess;
 import boardgame.Board;
 import boardgame.Piece;
 import boardgame.Position;
+import chess.pieces.Bishop;
+import chess.pieces.King;
+import chess.pieces.Knight;
+import chess.pieces.Pawn;
+import chess.pieces.Queen;
+import chess.pieces.Rook;
 
+/**
+ * A chess piece kind: a color and a type, with the rules for how it moves.
+ * Pieces keep no state of their own, so ChessPiece.of hands out one shared instance per color and type
+ * and every board of every match uses the same twelve objects. Where a piece stands, and the castling
+ * and en passant state its moves depend on, live in the ChessBoard passed to each query.
+ */
 public abstract class ChessPiece extends Piece {
-    private Color color;
-    private int moveCount;
+    private final Color color;
 
-    public ChessPiece(Board board, Color color) {
-        super(board);
+    // Use ChessPiece.of; separate instances work the same but are never needed
+    protected ChessPiece(Color color) {
         this.color = color;
     }
 
+    // The shared piece of a color and type
+    public static ChessPiece of(Color color, PieceType type) {
+        return Flyweights.PIECES[type.index(color)];
+    }
+
     public Color getColor() {
         return color;
     }
 
-    public void increaseMoveCount() {
-        moveCount++;
+    public abstract PieceType getType();
+
+    // Squares this piece can move to from a square of the board, as a bitboard over ChessBoard square indices
+    public abstract long possibleMovesMask(ChessBoard board, int square);
+
+    // Convenience adapter for UI.printBoard; move generation uses the mask or generateMoves
+    @Override
+    public boolean[][] possibleMoves(Board board, Position position) {
+        return Bitboards.toMatrix(possibleMovesMask((ChessBoard) board, Bitboards.square(position)));
     }
 
-    public void decreaseMoveCount() {
-        moveCount--;
+    @Override
+    public boolean possibleMove(Board board, Position source, Position target) {
+        return (possibleMovesMask((ChessBoard) board, Bitboards.square(source)) & Bitboards.bit(Bitboards.square(target))) != 0;
     }
 
-    public int getMoveCount() {
-        return moveCount;
+    @Override
+    public boolean isThereAnyPossibleMove(Board board, Position position) {
+        return possibleMovesMask((ChessBoard) board, Bitboards.square(position)) != 0;
     }
 
-    protected boolean isThereOpponentPiece(Position position) {
-        ChessPiece p = (ChessPiece) getBoard().piece(position);
-        return p != null && p.getColor() != color;
+    // Appends the moves of this piece standing on a square to the list as packed ints
+    public void generateMoves(ChessBoard board, int from, MoveList list) {
+        long opponents = board.getOccupancy() & ~board.getOccupancy(color);
+        long mask = possibleMovesMask(board, from);
+        while (mask != 0) {
+            int to = Long.numberOfTrailingZeros(mask);
+            list.add(Move.encode(from, to, (opponents & Bitboards.bit(to)) != 0 ? Move.CAPTURE : Move.QUIET));
+            mask &= mask - 1;
+        }
     }
 
-    public ChessPosition getChessPosition() {
-        return ChessPosition.fromPosition(position);
+    // Empty squares and opponent pieces
+    protected long targetsMask(ChessBoard board) {
+        return ~board.getOccupancy(color);
+    }
+
+    // Built on first use, so loading a piece class does not depend on ChessPiece having finished initializing
+    private static final class Flyweights {
+        // Indexed by PieceType.index(color)
+        static final ChessPiece[] PIECES = new ChessPiece[12];
+
+        static {
+            for (Color color : Color.values()) {
+                PIECES[PieceType.PAWN.index(color)] = new Pawn(color);
+                PIECES[PieceType.KNIGHT.index(color)] = new Knight(color);
+                PIECES[PieceType.BISHOP.index(color)] = new Bishop(color);
+                PIECES[PieceType.ROOK.index(color)] = new Rook(color);
+                PIECES[PieceType.QUEEN.index(color)] = new Queen(color);
+                PIECES[PieceType.KING.index(color)] = new King(color);
+            }
+        }
     }
 }
@@ -31,6 +31,11 @@ public class ChessPosition {
         return new Position(8 - row, column - 'a');
     }
 
+    // From a Bitboards square index
+    public static ChessPosition fromSquare(int square) {
+        return new ChessPosition((char) ('a' + Bitboards.column(square)), 8 - Bitboards.row(square));
+    }
+
     protected static ChessPosition fromPosition(Position position) {
         return new ChessPosition((char) ('a' + position.getColumn()), 8 - position.getRow());
     }
@@ -0,0 +1,20 @@
+package chess;
+
+// Why a match ended in a draw, see ChessMatch.getDraw
+public enum DrawReason {
+    STALEMATE("stalemate"),
+    THREEFOLD_REPETITION("threefold repetition"),
+    FIFTY_MOVE_RULE("fifty-move rule"),
+    INSUFFICIENT_MATERIAL("insufficient material");
+
+    private final String description;
+
+    DrawReason(String description) {
+        this.description = description;
+    }
+
+    @Override
+    public String toString() {
+        return description;
+    }
+}
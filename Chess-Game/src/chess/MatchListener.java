@@ -0,0 +1,19 @@
+package chess;
+
+/**
+ * Told about every move the players make through performChessMove (or tryMove) and replacePromotedPiece,
+ * and about takebacks through undo and redo.
+ * Moves played with makeMove (search, perft) are not reported.
+ */
+public interface MatchListener {
+
+    void movePlayed(ChessMatch match, int move);
+
+    void pieceReplaced(ChessMatch match, PieceType type);
+
+    // After ChessMatch.undo
+    void moveUndone(ChessMatch match);
+
+    // After ChessMatch.redo, with the move played again
+    void moveRedone(ChessMatch match, int move);
+}
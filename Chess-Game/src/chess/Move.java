@@ -0,0 +1,85 @@
+package chess;
+
+/**
+ * Moves packed into a single int so they can be stored in a MoveList without allocation.
+ * Bits 0-5 hold the source square, bits 6-11 the target square, bits 12-15 the flags
+ * and bits 16-18 the promotion PieceType ordinal. Squares use the Bitboards numbering.
+ */
+public final class Move {
+
+    public static final int QUIET = 0;
+    public static final int DOUBLE_PUSH = 1;
+    public static final int KING_CASTLE = 2;
+    public static final int QUEEN_CASTLE = 3;
+    public static final int CAPTURE = 4;
+    public static final int EN_PASSANT = 5;
+    // Combined with CAPTURE when a promotion also takes a piece
+    public static final int PROMOTION = 8;
+
+    public static final int NONE = 0;
+
+    private static final PieceType[] TYPES = PieceType.values();
+
+    private Move() {
+    }
+
+    public static int encode(int from, int to, int flags) {
+        return from | (to << 6) | (flags << 12);
+    }
+
+    public static int encode(int from, int to, int flags, PieceType promotion) {
+        return from | (to << 6) | (flags << 12) | (promotion.ordinal() << 16);
+    }
+
+    public static int from(int move) {
+        return move & 0x3F;
+    }
+
+    public static int to(int move) {
+        return (move >>> 6) & 0x3F;
+    }
+
+    public static int flags(int move) {
+        return (move >>> 12) & 0xF;
+    }
+
+    public static boolean isCapture(int move) {
+        return (flags(move) & CAPTURE) != 0;
+    }
+
+    public static boolean isPromotion(int move) {
+        return (flags(move) & PROMOTION) != 0;
+    }
+
+    public static boolean isCastle(int move) {
+        int flags = flags(move);
+        return flags == KING_CASTLE || flags == QUEEN_CASTLE;
+    }
+
+    public static PieceType promotion(int move) {
+        return isPromotion(move) ? TYPES[(move >>> 16) & 0x7] : null;
+    }
+
+    /**
+     * 16-bit storage form: source and target square plus the promotion PieceType ordinal in bits 12-14
+     * (0 when there is none, which is free since pawns never promote to pawns).
+     * The flags are left out; MoveList.findCompact recovers the full move from the legal moves.
+     */
+    public static short compact(int move) {
+        return (short) ((move & 0xFFF) | (isPromotion(move) ? ((move >>> 16) & 0x7) << 12 : 0));
+    }
+
+    public static String squareName(int square) {
+        return "" + (char) ('a' + Bitboards.column(square)) + (8 - Bitboards.row(square));
+    }
+
+    // Coordinate notation, e.g. "e2e4" or "e7e8q"
+    public static String toString(int move) {
+        String s = squareName(from(move)) + squareName(to(move));
+        PieceType promotion = promotion(move);
+        if (promotion != null) {
+            s += Character.toLowerCase(promotion.name().charAt(promotion == PieceType.KNIGHT ? 1 : 0));
+        }
+        return s;
+    }
+}
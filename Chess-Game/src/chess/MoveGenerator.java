@@ -0,0 +1,241 @@
+package chess;
+
+import java.util.Arrays;
+
+/**
+ * Generates only legal moves for one side of a ChessBoard or PositionSnapshot.
+ * Checkers, pinned pieces and the check-evasion mask are worked out once per call, so no move
+ * ever has to be played and taken back to find out whether it leaves the king in check.
+ */
+public class MoveGenerator {
+
+    // Castling right bits
+    public static final int WHITE_KINGSIDE = 1;
+    public static final int WHITE_QUEENSIDE = 2;
+    public static final int BLACK_KINGSIDE = 4;
+    public static final int BLACK_QUEENSIDE = 8;
+    public static final int ALL_CASTLING = 15;
+
+    // Castling rights that survive a move touching each square: a king or rook leaving home, or a rook captured there
+    static final int[] CASTLING_MASKS = new int[64];
+
+    static {
+        Arrays.fill(CASTLING_MASKS, ALL_CASTLING);
+        CASTLING_MASKS[60] &= ~(WHITE_KINGSIDE | WHITE_QUEENSIDE);
+        CASTLING_MASKS[63] &= ~WHITE_KINGSIDE;
+        CASTLING_MASKS[56] &= ~WHITE_QUEENSIDE;
+        CASTLING_MASKS[4] &= ~(BLACK_KINGSIDE | BLACK_QUEENSIDE);
+        CASTLING_MASKS[7] &= ~BLACK_KINGSIDE;
+        CASTLING_MASKS[0] &= ~BLACK_QUEENSIDE;
+    }
+
+    private static final PieceType[] PROMOTIONS = {PieceType.QUEEN, PieceType.ROOK, PieceType.BISHOP, PieceType.KNIGHT};
+
+    private final PieceBitboards board;
+
+    public MoveGenerator(PieceBitboards board) {
+        this.board = board;
+    }
+
+    public PieceBitboards getBoard() {
+        return board;
+    }
+
+    // Opponent pieces giving check to the king of the given color
+    public long checkers(Color side) {
+        int kingSquare = Long.numberOfTrailingZeros(board.getBitboard(side, PieceType.KING));
+        return attackersTo(kingSquare, side.opponent(), board.getOccupancy());
+    }
+
+    /**
+     * Replaces the list contents with every legal move of the given side.
+     *
+     * @param enPassantSquare square a pawn may capture onto en passant, or -1
+     * @param castlingRights  combination of the castling right bits above
+     */
+    public void generateLegalMoves(Color side, int enPassantSquare, int castlingRights, MoveList list) {
+        list.clear();
+        Color them = side.opponent();
+        long own = board.getOccupancy(side);
+        long enemy = board.getOccupancy(them);
+        long occupied = own | enemy;
+        int kingSquare = Long.numberOfTrailingZeros(board.getBitboard(side, PieceType.KING));
+
+        // King moves: look at the target with the king lifted off the board, so it cannot hide behind itself
+        long kingTargets = Bitboards.KING_ATTACKS[kingSquare] & ~own;
+        long withoutKing = occupied & ~Bitboards.bit(kingSquare);
+        while (kingTargets != 0) {
+            int to = Long.numberOfTrailingZeros(kingTargets);
+            if (attackersTo(to, them, withoutKing) == 0) {
+                list.add(Move.encode(kingSquare, to, (enemy & Bitboards.bit(to)) != 0 ? Move.CAPTURE : Move.QUIET));
+            }
+            kingTargets &= kingTargets - 1;
+        }
+
+        long checkers = attackersTo(kingSquare, them, occupied);
+        if (Long.bitCount(checkers) > 1) {
+            return; // Double check: only the king can move
+        }
+
+        // Squares that resolve a single check: capture the checker or block its ray
+        long checkMask = -1L;
+        if (checkers != 0) {
+            int checker = Long.numberOfTrailingZeros(checkers);
+            checkMask = checkers | Bitboards.BETWEEN[kingSquare][checker];
+        }
+
+        long pinned = pinnedPieces(side, kingSquare, own, enemy);
+
+        generatePawnMoves(side, kingSquare, pinned, checkMask, enPassantSquare, list);
+
+        long queens = board.getBitboard(side, PieceType.QUEEN);
+        generatePieceMoves(board.getBitboard(side, PieceType.KNIGHT) & ~pinned, PieceType.KNIGHT, kingSquare, pinned, checkMask, own, enemy, list);
+        generatePieceMoves(board.getBitboard(side, PieceType.BISHOP) | queens, PieceType.BISHOP, kingSquare, pinned, checkMask, own, enemy, list);
+        generatePieceMoves(board.getBitboard(side, PieceType.ROOK) | queens, PieceType.ROOK, kingSquare, pinned, checkMask, own, enemy, list);
+
+        if (checkers == 0) {
+            generateCastling(side, kingSquare, castlingRights, occupied, list);
+        }
+    }
+
+    public int countLegalMoves(Color side, int enPassantSquare, int castlingRights, MoveList list) {
+        generateLegalMoves(side, enPassantSquare, castlingRights, list);
+        return list.size();
+    }
+
+    private long attackersTo(int square, Color byColor, long occupied) {
+        long queens = board.getBitboard(byColor, PieceType.QUEEN);
+        return (Bitboards.PAWN_ATTACKS[byColor.opponent().ordinal()][square] & board.getBitboard(byColor, PieceType.PAWN))
+                | (Bitboards.KNIGHT_ATTACKS[square] & board.getBitboard(byColor, PieceType.KNIGHT))
+                | (Bitboards.KING_ATTACKS[square] & board.getBitboard(byColor, PieceType.KING))
+                | (Bitboards.rookAttacks(square, occupied) & (board.getBitboard(byColor, PieceType.ROOK) | queens))
+                | (Bitboards.bishopAttacks(square, occupied) & (board.getBitboard(byColor, PieceType.BISHOP) | queens));
+    }
+
+    // Own pieces that are the only blocker between the king and an enemy slider
+    private long pinnedPieces(Color side, int kingSquare, long own, long enemy) {
+        Color them = side.opponent();
+        long queens = board.getBitboard(them, PieceType.QUEEN);
+        long snipers = (Bitboards.rookAttacks(kingSquare, enemy) & (board.getBitboard(them, PieceType.ROOK) | queens))
+                | (Bitboards.bishopAttacks(kingSquare, enemy) & (board.getBitboard(them, PieceType.BISHOP) | queens));
+        long occupied = own | enemy;
+        long pinned = 0L;
+        while (snipers != 0) {
+            int sniper = Long.numberOfTrailingZeros(snipers);
+            long blockers = Bitboards.BETWEEN[kingSquare][sniper] & occupied;
+            if (Long.bitCount(blockers) == 1) {
+                pinned |= blockers & own;
+            }
+            snipers &= snipers - 1;
+        }
+        return pinned;
+    }
+
+    // Sliders are generated in two passes (diagonal, orthogonal) so the queen is covered by both
+    private void generatePieceMoves(long pieces, PieceType kind, int kingSquare, long pinned, long checkMask,
+                                    long own, long enemy, MoveList list) {
+        long occupied = own | enemy;
+        while (pieces != 0) {
+            int from = Long.numberOfTrailingZeros(pieces);
+            long targets;
+            if (kind == PieceType.KNIGHT) {
+                targets = Bitboards.KNIGHT_ATTACKS[from];
+            } else if (kind == PieceType.BISHOP) {
+                targets = Bitboards.bishopAttacks(from, occupied);
+            } else {
+                targets = Bitboards.rookAttacks(from, occupied);
+            }
+            targets &= ~own & checkMask;
+            if ((pinned & Bitboards.bit(from)) != 0) {
+                targets &= Bitboards.LINE[kingSquare][from];
+            }
+            while (targets != 0) {
+                int to = Long.numberOfTrailingZeros(targets);
+                list.add(Move.encode(from, to, (enemy & Bitboards.bit(to)) != 0 ? Move.CAPTURE : Move.QUIET));
+                targets &= targets - 1;
+            }
+            pieces &= pieces - 1;
+        }
+    }
+
+    private void generatePawnMoves(Color side, int kingSquare, long pinned, long checkMask, int enPassantSquare, MoveList list) {
+        Color them = side.opponent();
+        long enemy = board.getOccupancy(them);
+        long occupied = board.getOccupancy();
+        int forward = (side == Color.WHITE) ? -8 : 8;
+        int startRow = (side == Color.WHITE) ? 6 : 1;
+        long pawns = board.getBitboard(side, PieceType.PAWN);
+
+        while (pawns != 0) {
+            int from = Long.numberOfTrailingZeros(pawns);
+            long allowed = checkMask;
+            if ((pinned & Bitboards.bit(from)) != 0) {
+                allowed &= Bitboards.LINE[kingSquare][from];
+            }
+
+            int one = from + forward;
+            if ((occupied & Bitboards.bit(one)) == 0) {
+                if ((allowed & Bitboards.bit(one)) != 0) {
+                    addPawnMove(from, one, Move.QUIET, list);
+                }
+                int two = one + forward;
+                if (Bitboards.row(from) == startRow && (occupied & Bitboards.bit(two)) == 0 && (allowed & Bitboards.bit(two)) != 0) {
+                    list.add(Move.encode(from, two, Move.DOUBLE_PUSH));
+                }
+            }
+
+            long captures = Bitboards.PAWN_ATTACKS[side.ordinal()][from] & enemy & allowed;
+            while (captures != 0) {
+                int to = Long.numberOfTrailingZeros(captures);
+                addPawnMove(from, to, Move.CAPTURE, list);
+                captures &= captures - 1;
+            }
+
+            if (enPassantSquare >= 0 && (Bitboards.PAWN_ATTACKS[side.ordinal()][from] & Bitboards.bit(enPassantSquare)) != 0
+                    && isLegalEnPassant(side, kingSquare, from, enPassantSquare, checkMask)) {
+                list.add(Move.encode(from, enPassantSquare, Move.EN_PASSANT));
+            }
+            pawns &= pawns - 1;
+        }
+    }
+
+    private void addPawnMove(int from, int to, int flags, MoveList list) {
+        int row = Bitboards.row(to);
+        if (row == 0 || row == 7) {
+            for (PieceType promotion : PROMOTIONS) {
+                list.add(Move.encode(from, to, flags | Move.PROMOTION, promotion));
+            }
+        } else {
+            list.add(Move.encode(from, to, flags));
+        }
+    }
+
+    // En passant removes two pieces from one rank, so it is checked against the resulting occupancy directly
+    private boolean isLegalEnPassant(Color side, int kingSquare, int from, int to, long checkMask) {
+        int captured = to + ((side == Color.WHITE) ? 8 : -8);
+        if ((checkMask & (Bitboards.bit(to) | Bitboards.bit(captured))) == 0) {
+            return false;
+        }
+        Color them = side.opponent();
+        long occupied = (board.getOccupancy() & ~Bitboards.bit(from) & ~Bitboards.bit(captured)) | Bitboards.bit(to);
+        long queens = board.getBitboard(them, PieceType.QUEEN);
+        return (Bitboards.rookAttacks(kingSquare, occupied) & (board.getBitboard(them, PieceType.ROOK) | queens)) == 0
+                && (Bitboards.bishopAttacks(kingSquare, occupied) & (board.getBitboard(them, PieceType.BISHOP) | queens)) == 0;
+    }
+
+    private void generateCastling(Color side, int kingSquare, int castlingRights, long occupied, MoveList list) {
+        Color them = side.opponent();
+        int kingside = (side == Color.WHITE) ? WHITE_KINGSIDE : BLACK_KINGSIDE;
+        int queenside = (side == Color.WHITE) ? WHITE_QUEENSIDE : BLACK_QUEENSIDE;
+        if ((castlingRights & kingside) != 0
+                && (occupied & (Bitboards.bit(kingSquare + 1) | Bitboards.bit(kingSquare + 2))) == 0
+                && attackersTo(kingSquare + 1, them, occupied) == 0 && attackersTo(kingSquare + 2, them, occupied) == 0) {
+            list.add(Move.encode(kingSquare, kingSquare + 2, Move.KING_CASTLE));
+        }
+        if ((castlingRights & queenside) != 0
+                && (occupied & (Bitboards.bit(kingSquare - 1) | Bitboards.bit(kingSquare - 2) | Bitboards.bit(kingSquare - 3))) == 0
+                && attackersTo(kingSquare - 1, them, occupied) == 0 && attackersTo(kingSquare - 2, them, occupied) == 0) {
+            list.add(Move.encode(kingSquare, kingSquare - 2, Move.QUEEN_CASTLE));
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package chess;
+
+/**
+ * Reusable, caller-owned buffer of packed moves (see Move).
+ * Clearing and refilling it does not allocate, so one instance can be kept per search ply or per thread.
+ */
+public class MoveList {
+
+    // No legal chess position has more than 218 moves
+    public static final int CAPACITY = 256;
+
+    private final int[] moves = new int[CAPACITY];
+    private int size;
+
+    public void clear() {
+        size = 0;
+    }
+
+    public void add(int move) {
+        moves[size++] = move;
+    }
+
+    // Replaces the contents with another list's moves
+    public void copyFrom(MoveList other) {
+        System.arraycopy(other.moves, 0, moves, 0, other.size);
+        size = other.size;
+    }
+
+    public int get(int index) {
+        return moves[index];
+    }
+
+    public void swap(int i, int j) {
+        int move = moves[i];
+        moves[i] = moves[j];
+        moves[j] = move;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    // First move going from one square to another, or Move.NONE
+    public int find(int from, int to) {
+        for (int i = 0; i < size; i++) {
+            if (Move.from(moves[i]) == from && Move.to(moves[i]) == to) {
+                return moves[i];
+            }
+        }
+        return Move.NONE;
+    }
+
+    // Legal move matching a Move.compact value, or Move.NONE
+    public int findCompact(int compact) {
+        for (int i = 0; i < size; i++) {
+            if (Move.compact(moves[i]) == (short) compact) {
+                return moves[i];
+            }
+        }
+        return Move.NONE;
+    }
+}
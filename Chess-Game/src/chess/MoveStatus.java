@@ -0,0 +1,38 @@
+package chess;
+
+/**
+ * Results of ChessMatch.tryMove, as plain ints so that rejecting a move builds no exception and no message.
+ * performChessMove turns the rejections back into the ChessExceptions it has always thrown.
+ */
+public final class MoveStatus {
+
+    public static final int OK = 0;
+    // A square index outside 0-63
+    public static final int OFF_BOARD = 1;
+    public static final int NO_PIECE = 2;
+    public static final int NOT_YOUR_PIECE = 3;
+    // The piece has no legal move at all
+    public static final int NO_MOVES = 4;
+    // The piece does not move that way
+    public static final int ILLEGAL_TARGET = 5;
+    // The piece moves that way, but the move would leave its own king in check
+    public static final int LEAVES_KING_IN_CHECK = 6;
+
+    private static final String[] DESCRIPTIONS = {
+            "OK",
+            "Square not on the board",
+            "There is no piece on the source square",
+            "The chosen piece is not yours",
+            "The chosen piece has no possible moves",
+            "The chosen piece cannot move to the target square",
+            "You cannot put yourself in check"
+    };
+
+    private MoveStatus() {
+    }
+
+    // Constant text for a status, for callers that report rejections without building messages
+    public static String describe(int status) {
+        return DESCRIPTIONS[status];
+    }
+}
@@ -0,0 +1,218 @@
+package chess;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Counts the leaf nodes of the legal move tree from a ChessMatch position.
+ * Root moves are split across a ForkJoinPool, each worker playing on its own copy of the match,
+ * and an optional shared hash table reuses the counts of transposed subtrees.
+ *
+ * Usage: java chess.Perft depth [threads] [hashMB] [FEN]
+ */
+public class Perft {
+
+    private final ChessMatch root;
+    private final int threads;
+    private final Table table;
+
+    public Perft(ChessMatch root, int threads, int hashMegabytes) {
+        this.root = root;
+        this.threads = threads;
+        this.table = (hashMegabytes > 0) ? new Table(hashMegabytes) : null;
+    }
+
+    public Result run(int depth) {
+        if (depth < 1) {
+            throw new IllegalArgumentException("Perft depth must be at least 1.");
+        }
+        MoveList rootMoves = new MoveList();
+        root.generateMoves(rootMoves);
+
+        long start = System.nanoTime();
+        List<RootTask> tasks = new ArrayList<>();
+        for (int i = 0; i < rootMoves.size(); i++) {
+            tasks.add(new RootTask(new ChessMatch(root), rootMoves.get(i), depth, table));
+        }
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            pool.submit(() -> RecursiveTask.invokeAll(tasks)).join();
+        } finally {
+            pool.shutdown();
+        }
+
+        int[] moves = new int[tasks.size()];
+        long[] counts = new long[tasks.size()];
+        long nodes = 0;
+        for (int i = 0; i < tasks.size(); i++) {
+            moves[i] = rootMoves.get(i);
+            counts[i] = tasks.get(i).join();
+            nodes += counts[i];
+        }
+        return new Result(moves, counts, nodes, System.nanoTime() - start);
+    }
+
+    // Single-threaded count without the hash table, for callers that just need the number
+    public static long count(ChessMatch match, int depth) {
+        return new Counter(match, depth, null).count(depth);
+    }
+
+    public static class Result {
+        private final int[] moves;
+        private final long[] counts;
+        private final long nodes;
+        private final long nanos;
+
+        private Result(int[] moves, long[] counts, long nodes, long nanos) {
+            this.moves = moves;
+            this.counts = counts;
+            this.nodes = nodes;
+            this.nanos = nanos;
+        }
+
+        public int getRootMoveCount() {
+            return moves.length;
+        }
+
+        public int getRootMove(int index) {
+            return moves[index];
+        }
+
+        public long getRootCount(int index) {
+            return counts[index];
+        }
+
+        public long getNodes() {
+            return nodes;
+        }
+
+        public long getNanos() {
+            return nanos;
+        }
+
+        public long getNodesPerSecond() {
+            return (nanos == 0) ? 0 : nodes * 1_000_000_000L / nanos;
+        }
+    }
+
+    @SuppressWarnings("serial")
+    private static class RootTask extends RecursiveTask<Long> {
+        private final ChessMatch match;
+        private final int move;
+        private final int depth;
+        private final Table table;
+
+        RootTask(ChessMatch match, int move, int depth, Table table) {
+            this.match = match;
+            this.move = move;
+            this.depth = depth;
+            this.table = table;
+        }
+
+        @Override
+        protected Long compute() {
+            match.makeMove(move);
+            return new Counter(match, depth - 1, table).count(depth - 1);
+        }
+    }
+
+    // Depth-first counter with one preallocated move list per ply
+    private static class Counter {
+        private final ChessMatch match;
+        private final MoveList[] lists;
+        private final Table table;
+
+        Counter(ChessMatch match, int depth, Table table) {
+            this.match = match;
+            this.table = table;
+            this.lists = new MoveList[depth + 1];
+            for (int i = 0; i <= depth; i++) {
+                lists[i] = new MoveList();
+            }
+        }
+
+        long count(int depth) {
+            if (depth == 0) {
+                return 1;
+            }
+            long key = 0;
+            if (table != null && depth > 1) {
+                key = match.getZobristKey();
+                long cached = table.probe(key, depth);
+                if (cached >= 0) {
+                    return cached;
+                }
+            }
+            MoveList list = lists[depth];
+            match.generateMoves(list);
+            if (depth == 1) {
+                return list.size(); // Bulk count at the frontier
+            }
+            long nodes = 0;
+            for (int i = 0; i < list.size(); i++) {
+                match.makeMove(list.get(i));
+                nodes += count(depth - 1);
+                match.undoMove();
+            }
+            if (table != null) {
+                table.store(key, depth, nodes);
+            }
+            return nodes;
+        }
+    }
+
+    /**
+     * Shared subtree-count cache. Each entry stores the key XOR-ed with its data, so a torn write
+     * from two threads racing on one slot fails verification instead of returning a wrong count.
+     */
+    private static class Table {
+        private final long[] keys;
+        private final long[] data;
+        private final int mask;
+
+        Table(int megabytes) {
+            int entries = Integer.highestOneBit(Math.max(1, megabytes * (1024 * 1024 / 16)));
+            keys = new long[entries];
+            data = new long[entries];
+            mask = entries - 1;
+        }
+
+        long probe(long key, int depth) {
+            int index = (int) key & mask;
+            long d = data[index];
+            if ((keys[index] ^ d) == key && (d & 0xFF) == depth) {
+                return d >>> 8;
+            }
+            return -1;
+        }
+
+        void store(long key, int depth, long nodes) {
+            int index = (int) key & mask;
+            long d = (nodes << 8) | depth;
+            data[index] = d;
+            keys[index] = key ^ d;
+        }
+    }
+
+    public static void main(String[] args) {
+        int depth = (args.length > 0) ? Integer.parseInt(args[0]) : 5;
+        int threads = (args.length > 1) ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        int hashMegabytes = (args.length > 2) ? Integer.parseInt(args[2]) : 0;
+
+        ChessMatch root = (args.length > 3)
+                ? new ChessMatch(String.join(" ", Arrays.copyOfRange(args, 3, args.length)))
+                : new ChessMatch();
+
+        Result result = new Perft(root, threads, hashMegabytes).run(depth);
+        for (int i = 0; i < result.getRootMoveCount(); i++) {
+            System.out.println(Move.toString(result.getRootMove(i)) + ": " + result.getRootCount(i));
+        }
+        System.out.println();
+        System.out.println("Nodes: " + result.getNodes());
+        System.out.println("Time: " + result.getNanos() / 1_000_000 + " ms");
+        System.out.println("Nodes/second: " + result.getNodesPerSecond());
+    }
+}
@@ -0,0 +1,14 @@
+package chess;
+
+/**
+ * Read access to the twelve piece bitboards of a position.
+ * ChessBoard and PositionSnapshot both provide it, so MoveGenerator runs on either.
+ */
+public interface PieceBitboards {
+
+    long getBitboard(Color color, PieceType type);
+
+    long getOccupancy(Color color);
+
+    long getOccupancy();
+}
@@ -0,0 +1,51 @@
+package chess;
+
+import java.util.Arrays;
+
+/**
+ * Squares of the pieces on the board grouped by color and type, each group a compact array indexed like the
+ * ChessBoard bitboards. The registry remembers the slot of the piece on every square, so adding, removing and
+ * moving take constant time: a removed piece's slot is filled with the last square of its group.
+ */
+final class PieceRegistry {
+
+    private final byte[][] groups = new byte[12][10];
+    private final int[] counts = new int[12];
+    // Index inside its group of the piece standing on each square
+    private final byte[] slots = new byte[64];
+
+    void add(ChessPiece piece, int square) {
+        int group = piece.getType().index(piece.getColor());
+        if (counts[group] == groups[group].length) {
+            groups[group] = Arrays.copyOf(groups[group], counts[group] * 2);
+        }
+        slots[square] = (byte) counts[group];
+        groups[group][counts[group]++] = (byte) square;
+    }
+
+    void remove(ChessPiece piece, int square) {
+        int group = piece.getType().index(piece.getColor());
+        int last = --counts[group];
+        int moved = groups[group][last];
+        groups[group][slots[square]] = (byte) moved;
+        slots[moved] = slots[square];
+    }
+
+    void move(ChessPiece piece, int from, int to) {
+        groups[piece.getType().index(piece.getColor())][slots[from]] = (byte) to;
+        slots[to] = slots[from];
+    }
+
+    void clear() {
+        Arrays.fill(counts, 0);
+    }
+
+    int count(Color color, PieceType type) {
+        return counts[type.index(color)];
+    }
+
+    // Squares of a group in no particular order; the order changes as pieces are removed
+    int square(Color color, PieceType type, int i) {
+        return groups[type.index(color)][i];
+    }
+}
@@ -0,0 +1,15 @@
+package chess;
+
+public enum PieceType {
+    PAWN,
+    KNIGHT,
+    BISHOP,
+    ROOK,
+    QUEEN,
+    KING;
+
+    // Index of the (color, type) bitboard inside ChessBoard
+    public int index(Color color) {
+        return color.ordinal() * 6 + ordinal();
+    }
+}
@@ -0,0 +1,234 @@
+package chess;
+
+/**
+ * Immutable position that can be shared freely between threads.
+ * The pieces are kept as two Side objects, one per color, each holding its six bitboards. play returns a
+ * new snapshot that replaces only the mover's Side and shares the other one, unless the move captures, and
+ * points back to the snapshot it came from. A game tree of snapshots therefore costs one small object pair
+ * per node instead of a board copy, and any thread can branch from any node without locking.
+ */
+public final class PositionSnapshot implements PieceBitboards {
+
+    private static final PieceType[] TYPES = PieceType.values();
+
+    private final Side white;
+    private final Side black;
+    private final Color sideToMove;
+    private final int castlingRights;
+    private final int enPassantSquare;
+    private final int halfmoveClock;
+    private final int fullmoveNumber;
+    private final long zobristKey;
+    private final PositionSnapshot parent;
+    private final int move;
+
+    private PositionSnapshot(Side white, Side black, Color sideToMove, int castlingRights, int enPassantSquare,
+                             int halfmoveClock, int fullmoveNumber, long placementKey, PositionSnapshot parent, int move) {
+        this.white = white;
+        this.black = black;
+        this.sideToMove = sideToMove;
+        this.castlingRights = castlingRights;
+        this.enPassantSquare = enPassantSquare;
+        this.halfmoveClock = halfmoveClock;
+        this.fullmoveNumber = fullmoveNumber;
+        this.parent = parent;
+        this.move = move;
+        long key = placementKey ^ Zobrist.CASTLING[castlingRights] ^ enPassantKey();
+        this.zobristKey = (sideToMove == Color.BLACK) ? key ^ Zobrist.SIDE : key;
+    }
+
+    /**
+     * Snapshot of the match's current position, with no parent.
+     * ChessMatch.snapshot() is usually cheaper, since it extends its last snapshot with the moves played since.
+     */
+    public static PositionSnapshot of(ChessMatch match) {
+        ChessBoard board = match.getBoard();
+        return new PositionSnapshot(new Side(board, Color.WHITE), new Side(board, Color.BLACK), match.getCurrentPlayer(),
+                match.castlingRights(), match.enPassantSquare(), match.getHalfmoveClock(), match.getFullmoveNumber(),
+                board.getZobristKey(), null, Move.NONE);
+    }
+
+    /**
+     * Position after a legal move of this one (from generateMoves or the match the snapshot was taken from).
+     * Only the mover's bitboards are copied; the opponent's are shared unless the move captures.
+     */
+    public PositionSnapshot play(int move) {
+        Color us = sideToMove;
+        Color them = us.opponent();
+        int from = Move.from(move);
+        int to = Move.to(move);
+        int flags = Move.flags(move);
+        PieceType type = getType(from);
+        long key = placementKey();
+
+        long[] mover = side(us).pieces.clone();
+        mover[type.ordinal()] ^= Bitboards.bit(from);
+        key ^= Zobrist.PIECES[type.index(us)][from];
+        PieceType placed = Move.isPromotion(move) ? Move.promotion(move) : type;
+        mover[placed.ordinal()] |= Bitboards.bit(to);
+        key ^= Zobrist.PIECES[placed.index(us)][to];
+
+        if (flags == Move.KING_CASTLE || flags == Move.QUEEN_CASTLE) {
+            int rookFrom = (flags == Move.KING_CASTLE) ? from + 3 : from - 4;
+            int rookTo = (flags == Move.KING_CASTLE) ? from + 1 : from - 1;
+            mover[PieceType.ROOK.ordinal()] ^= Bitboards.bit(rookFrom) | Bitboards.bit(rookTo);
+            key ^= Zobrist.PIECES[PieceType.ROOK.index(us)][rookFrom] ^ Zobrist.PIECES[PieceType.ROOK.index(us)][rookTo];
+        }
+
+        Side opponent = side(them);
+        boolean capture = Move.isCapture(move);
+        if (capture) {
+            int capturedSquare = (flags == Move.EN_PASSANT) ? to + ((us == Color.WHITE) ? 8 : -8) : to;
+            PieceType captured = opponent.typeAt(capturedSquare);
+            long[] pieces = opponent.pieces.clone();
+            pieces[captured.ordinal()] ^= Bitboards.bit(capturedSquare);
+            key ^= Zobrist.PIECES[captured.index(them)][capturedSquare];
+            opponent = new Side(pieces);
+        }
+        Side moved = new Side(mover);
+
+        return new PositionSnapshot(
+                (us == Color.WHITE) ? moved : opponent,
+                (us == Color.WHITE) ? opponent : moved,
+                them,
+                castlingRights & MoveGenerator.CASTLING_MASKS[from] & MoveGenerator.CASTLING_MASKS[to],
+                (flags == Move.DOUBLE_PUSH) ? (from + to) >>> 1 : -1,
+                (type == PieceType.PAWN || capture) ? 0 : halfmoveClock + 1,
+                (us == Color.BLACK) ? fullmoveNumber + 1 : fullmoveNumber,
+                key, this, move);
+    }
+
+    // Replaces the list contents with the side to move's legal moves
+    public void generateMoves(MoveList list) {
+        new MoveGenerator(this).generateLegalMoves(sideToMove, enPassantSquare, castlingRights, list);
+    }
+
+    public boolean isCheck() {
+        return new MoveGenerator(this).checkers(sideToMove) != 0;
+    }
+
+    @Override
+    public long getBitboard(Color color, PieceType type) {
+        return side(color).pieces[type.ordinal()];
+    }
+
+    @Override
+    public long getOccupancy(Color color) {
+        return side(color).occupancy;
+    }
+
+    @Override
+    public long getOccupancy() {
+        return white.occupancy | black.occupancy;
+    }
+
+    // Type of the piece on a square, or null when it is empty
+    public PieceType getType(int square) {
+        PieceType type = white.typeAt(square);
+        return (type != null) ? type : black.typeAt(square);
+    }
+
+    // Color of the piece on a square, or null when it is empty
+    public Color getColor(int square) {
+        long bit = Bitboards.bit(square);
+        if ((white.occupancy & bit) != 0) {
+            return Color.WHITE;
+        }
+        return ((black.occupancy & bit) != 0) ? Color.BLACK : null;
+    }
+
+    public Color getSideToMove() {
+        return sideToMove;
+    }
+
+    // Combination of the MoveGenerator castling right bits
+    public int getCastlingRights() {
+        return castlingRights;
+    }
+
+    // Square a pawn may capture onto en passant, or -1
+    public int getEnPassantSquare() {
+        return enPassantSquare;
+    }
+
+    public int getHalfmoveClock() {
+        return halfmoveClock;
+    }
+
+    public int getFullmoveNumber() {
+        return fullmoveNumber;
+    }
+
+    // Same key ChessMatch.getZobristKey gives for the position
+    public long getZobristKey() {
+        return zobristKey;
+    }
+
+    // Snapshot this one was played from, or null
+    public PositionSnapshot getParent() {
+        return parent;
+    }
+
+    // Move that led here from the parent, or Move.NONE
+    public int getMove() {
+        return move;
+    }
+
+    private Side side(Color color) {
+        return (color == Color.WHITE) ? white : black;
+    }
+
+    private long placementKey() {
+        long key = zobristKey ^ Zobrist.CASTLING[castlingRights] ^ enPassantKey();
+        return (sideToMove == Color.BLACK) ? key ^ Zobrist.SIDE : key;
+    }
+
+    // Same rule as ChessMatch: the en passant file counts only when the side to move can capture there
+    private long enPassantKey() {
+        if (enPassantSquare < 0 || (Bitboards.PAWN_ATTACKS[sideToMove.opponent().ordinal()][enPassantSquare]
+                & getBitboard(sideToMove, PieceType.PAWN)) == 0) {
+            return 0L;
+        }
+        return Zobrist.EN_PASSANT[Bitboards.column(enPassantSquare)];
+    }
+
+    // One color's pieces; never modified once built
+    private static final class Side {
+        private final long[] pieces;
+        private final long occupancy;
+
+        Side(long[] pieces) {
+            this.pieces = pieces;
+            long occupancy = 0;
+            for (long bitboard : pieces) {
+                occupancy |= bitboard;
+            }
+            this.occupancy = occupancy;
+        }
+
+        Side(ChessBoard board, Color color) {
+            this(bitboards(board, color));
+        }
+
+        private static long[] bitboards(ChessBoard board, Color color) {
+            long[] pieces = new long[TYPES.length];
+            for (PieceType type : TYPES) {
+                pieces[type.ordinal()] = board.getBitboard(color, type);
+            }
+            return pieces;
+        }
+
+        PieceType typeAt(int square) {
+            long bit = Bitboards.bit(square);
+            if ((occupancy & bit) == 0) {
+                return null;
+            }
+            for (int i = 0; i < pieces.length; i++) {
+                if ((pieces[i] & bit) != 0) {
+                    return TYPES[i];
+                }
+            }
+            return null;
+        }
+    }
+}
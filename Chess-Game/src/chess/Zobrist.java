@@ -0,0 +1,38 @@
+package chess;
+
+import java.util.SplittableRandom;
+
+/**
+ * Random keys for Zobrist position hashing.
+ * A fixed seed keeps keys stable between runs, so hashes written to disk stay valid.
+ */
+public final class Zobrist {
+
+    // Indexed by PieceType.index(color), then by square
+    public static final long[][] PIECES = new long[12][64];
+    // Indexed by the MoveGenerator castling right bits
+    public static final long[] CASTLING = new long[16];
+    // Indexed by the file of the en passant square
+    public static final long[] EN_PASSANT = new long[8];
+    // Present when black is to move
+    public static final long SIDE;
+
+    static {
+        SplittableRandom random = new SplittableRandom(0x5EEDC0FFEEL);
+        for (long[] keys : PIECES) {
+            for (int sq = 0; sq < 64; sq++) {
+                keys[sq] = random.nextLong();
+            }
+        }
+        for (int i = 1; i < CASTLING.length; i++) {
+            CASTLING[i] = random.nextLong();
+        }
+        for (int i = 0; i < EN_PASSANT.length; i++) {
+            EN_PASSANT[i] = random.nextLong();
+        }
+        SIDE = random.nextLong();
+    }
+
+    private Zobrist() {
+    }
+}
@@ -0,0 +1,210 @@
+package chess.book;
+
+import chess.ChessMatch;
+import chess.Color;
+import chess.Move;
+import chess.MoveList;
+import chess.pgn.GameStore;
+import chess.pgn.PgnImporter;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Builds an OpeningBook file from a game collection.
+ * Every move played in the first maxPly plies of a game counts for its position, weighted by how the game
+ * ended for the side that played it: 2 for a win, 1 for a draw or unknown result, 0 for a loss.
+ * Positions are keyed by Zobrist key, so transpositions share their entries.
+ *
+ * Usage: java chess.book.BookBuilder games.pgn book.bin [maxPly] [minGames]
+ */
+public class BookBuilder {
+
+    private final int maxPly;
+
+    // Open-addressing table of (key, compact move) -> weight and game count
+    private long[] keys = new long[1 << 16];
+    private short[] moves = new short[1 << 16];
+    private int[] weights = new int[1 << 16];
+    private int[] counts = new int[1 << 16];
+    private boolean[] used = new boolean[1 << 16];
+    private int entries;
+
+    public BookBuilder(int maxPly) {
+        this.maxPly = maxPly;
+    }
+
+    public int getEntries() {
+        return entries;
+    }
+
+    public void addGames(GameStore store) {
+        ChessMatch match = new ChessMatch();
+        MoveList legalMoves = new MoveList();
+        for (int game = 0; game < store.getGameCount(); game++) {
+            byte result = store.getResult(game);
+            int plies = Math.min(maxPly, store.getLength(game));
+            int played = 0;
+            for (; played < plies; played++) {
+                match.generateMoves(legalMoves);
+                int move = legalMoves.findCompact(store.getMove(game, played));
+                if (move == Move.NONE) {
+                    break;
+                }
+                add(match.getZobristKey(), Move.compact(move), weight(result, match.getCurrentPlayer()));
+                match.makeMove(move);
+            }
+            for (; played > 0; played--) {
+                match.undoMove();
+            }
+        }
+    }
+
+    public void add(long key, short move, int weight) {
+        if (entries * 2 >= keys.length) {
+            grow();
+        }
+        int slot = slot(key, move);
+        if (!used[slot]) {
+            used[slot] = true;
+            keys[slot] = key;
+            moves[slot] = move;
+            entries++;
+        }
+        weights[slot] += weight;
+        counts[slot]++;
+    }
+
+    /**
+     * Writes the entries played in at least minGames games and not always lost.
+     * Weights of a position are scaled down together when one of them does not fit in 16 bits.
+     * Returns the number of entries written.
+     */
+    public int write(Path file, int minGames) throws IOException {
+        long[] outKeys = new long[entries];
+        short[] outMoves = new short[entries];
+        int[] outWeights = new int[entries];
+        int n = 0;
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (used[slot] && counts[slot] >= minGames && weights[slot] > 0) {
+                outKeys[n] = keys[slot];
+                outMoves[n] = moves[slot];
+                outWeights[n] = weights[slot];
+                n++;
+            }
+        }
+        sort(outKeys, outMoves, outWeights, 0, n - 1);
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), 1 << 16))) {
+            out.writeInt(OpeningBook.MAGIC);
+            out.writeInt(n);
+            for (int first = 0; first < n; ) {
+                int last = first;
+                int max = 0;
+                while (last < n && outKeys[last] == outKeys[first]) {
+                    max = Math.max(max, outWeights[last]);
+                    last++;
+                }
+                for (int i = first; i < last; i++) {
+                    long weight = (max > 0xFFFF) ? Math.max(1, (long) outWeights[i] * 0xFFFF / max) : outWeights[i];
+                    out.writeLong(outKeys[i]);
+                    out.writeShort(outMoves[i]);
+                    out.writeShort((int) weight);
+                }
+                first = last;
+            }
+        }
+        return n;
+    }
+
+    private static int weight(byte result, Color mover) {
+        if (result == GameStore.WHITE_WINS) {
+            return (mover == Color.WHITE) ? 2 : 0;
+        }
+        if (result == GameStore.BLACK_WINS) {
+            return (mover == Color.BLACK) ? 2 : 0;
+        }
+        return 1;
+    }
+
+    private int slot(long key, short move) {
+        int mask = keys.length - 1;
+        int slot = (int) ((key ^ (move * 0x9E3779B97F4A7C15L)) >>> 40) & mask;
+        while (used[slot] && (keys[slot] != key || moves[slot] != move)) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        short[] oldMoves = moves;
+        int[] oldWeights = weights;
+        int[] oldCounts = counts;
+        boolean[] oldUsed = used;
+        int capacity = oldKeys.length * 2;
+        keys = new long[capacity];
+        moves = new short[capacity];
+        weights = new int[capacity];
+        counts = new int[capacity];
+        used = new boolean[capacity];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldUsed[i]) {
+                int slot = slot(oldKeys[i], oldMoves[i]);
+                used[slot] = true;
+                keys[slot] = oldKeys[i];
+                moves[slot] = oldMoves[i];
+                weights[slot] = oldWeights[i];
+                counts[slot] = oldCounts[i];
+            }
+        }
+    }
+
+    // Quicksort of the parallel arrays by unsigned key, the order OpeningBook.find searches in
+    private static void sort(long[] keys, short[] moves, int[] weights, int lo, int hi) {
+        while (lo < hi) {
+            long pivot = keys[(lo + hi) >>> 1];
+            int i = lo;
+            int j = hi;
+            while (i <= j) {
+                while (Long.compareUnsigned(keys[i], pivot) < 0) i++;
+                while (Long.compareUnsigned(keys[j], pivot) > 0) j--;
+                if (i <= j) {
+                    long k = keys[i]; keys[i] = keys[j]; keys[j] = k;
+                    short m = moves[i]; moves[i] = moves[j]; moves[j] = m;
+                    int w = weights[i]; weights[i] = weights[j]; weights[j] = w;
+                    i++;
+                    j--;
+                }
+            }
+            // Recurse into the smaller half so the stack stays shallow
+            if (j - lo < hi - i) {
+                sort(keys, moves, weights, lo, j);
+                lo = i;
+            } else {
+                sort(keys, moves, weights, i, hi);
+                hi = j;
+            }
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.out.println("Usage: java chess.book.BookBuilder games.pgn book.bin [maxPly] [minGames]");
+            return;
+        }
+        int maxPly = (args.length > 2) ? Integer.parseInt(args[2]) : 20;
+        int minGames = (args.length > 3) ? Integer.parseInt(args[3]) : 2;
+
+        PgnImporter.Report report = new PgnImporter(Runtime.getRuntime().availableProcessors()).run(Paths.get(args[0]));
+        System.out.println(report);
+        BookBuilder builder = new BookBuilder(maxPly);
+        builder.addGames(report.getStore());
+        int written = builder.write(Paths.get(args[1]), minGames);
+        System.out.println("Book: " + written + " entries written out of " + builder.getEntries());
+    }
+}
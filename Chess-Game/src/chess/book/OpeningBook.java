@@ -0,0 +1,114 @@
+package chess.book;
+
+import chess.ChessException;
+import chess.ChessMatch;
+import chess.Move;
+import chess.MoveList;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+
+/**
+ * Read-only opening book, memory-mapped from a file written by BookBuilder.
+ * The file is an 8-byte header (magic, entry count) followed by 12-byte entries sorted by key:
+ * the position's Zobrist key, a Move.compact move and an unsigned 16-bit weight.
+ * Lookups binary-search the mapped bytes directly and allocate nothing.
+ */
+public class OpeningBook {
+
+    static final int MAGIC = 0x43424B31; // "CBK1"
+    static final int HEADER_BYTES = 8;
+    static final int ENTRY_BYTES = 12;
+
+    private final ByteBuffer entries;
+    private final int size;
+
+    private OpeningBook(ByteBuffer entries, int size) {
+        this.entries = entries;
+        this.size = size;
+    }
+
+    public static OpeningBook open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (mapped.limit() < HEADER_BYTES || mapped.getInt(0) != MAGIC) {
+                throw new ChessException("Not an opening book: " + file);
+            }
+            int size = mapped.getInt(4);
+            if ((long) HEADER_BYTES + (long) size * ENTRY_BYTES != mapped.limit()) {
+                throw new ChessException("Opening book is truncated: " + file);
+            }
+            // The mapping stays valid after the channel is closed
+            return new OpeningBook(mapped, size);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long key(int index) {
+        return entries.getLong(HEADER_BYTES + index * ENTRY_BYTES);
+    }
+
+    public short compactMove(int index) {
+        return entries.getShort(HEADER_BYTES + index * ENTRY_BYTES + 8);
+    }
+
+    public int weight(int index) {
+        return entries.getShort(HEADER_BYTES + index * ENTRY_BYTES + 10) & 0xFFFF;
+    }
+
+    // Index of the first entry for the key, or -1 when the position is not in the book
+    public int find(long key) {
+        int lo = 0;
+        int hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (Long.compareUnsigned(key(mid), key) < 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return (lo < size && key(lo) == key) ? lo : -1;
+    }
+
+    /**
+     * Picks a book move for the side to move, at random in proportion to the weights.
+     * legalMoves is filled with the match's legal moves and used to turn the stored move back into a full one,
+     * which also throws out any entry that belongs to another position with the same key.
+     * Returns Move.NONE when the position is not in the book.
+     */
+    public int probe(ChessMatch match, MoveList legalMoves, Random random) {
+        int first = find(match.getZobristKey());
+        if (first < 0) {
+            return Move.NONE;
+        }
+        match.generateMoves(legalMoves);
+        long total = 0;
+        for (int i = first; i < size && key(i) == key(first); i++) {
+            if (legalMoves.findCompact(compactMove(i)) != Move.NONE) {
+                total += weight(i);
+            }
+        }
+        if (total == 0) {
+            return Move.NONE;
+        }
+        long pick = (long) (random.nextDouble() * total);
+        for (int i = first; i < size && key(i) == key(first); i++) {
+            int move = legalMoves.findCompact(compactMove(i));
+            if (move != Move.NONE) {
+                pick -= weight(i);
+                if (pick < 0) {
+                    return move;
+                }
+            }
+        }
+        return Move.NONE;
+    }
+}
@@ -0,0 +1,126 @@
+package chess.engine;
+
+import chess.ChessMatch;
+import chess.tablebase.Tablebases;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Lazy SMP: one main search plus helper threads searching the same root, each on its own copy
+ * of the ChessMatch, sharing results only through the transposition table.
+ * Odd helpers start one ply deeper than the main search so the threads spread over different depths.
+ * The main thread decides the move; helpers stop as soon as it finishes. The helper threads are started once
+ * and reused by every search until close.
+ *
+ * Usage: java chess.engine.ParallelSearch [depth] [maxThreads], reports time-to-depth speedup per thread count.
+ */
+public class ParallelSearch implements AutoCloseable {
+
+    private final TranspositionTable table;
+    private final Search[] searches;
+    // Daemon threads, so an engine that is never closed does not keep the JVM alive
+    private final ExecutorService helpers;
+
+    public ParallelSearch(TranspositionTable table, int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Parallel search needs at least one thread.");
+        }
+        this.table = table;
+        this.searches = new Search[threads];
+        for (int i = 0; i < threads; i++) {
+            searches[i] = new Search(table);
+            searches[i].setDepthOffset(i % 2);
+            searches[i].setAgesTable(false);
+        }
+        AtomicInteger helperNumber = new AtomicInteger();
+        this.helpers = (threads > 1) ? Executors.newFixedThreadPool(threads - 1, task -> {
+            Thread thread = new Thread(task, "search-helper-" + helperNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }) : null;
+    }
+
+    public void setTablebases(Tablebases tablebases) {
+        for (Search search : searches) {
+            search.setTablebases(tablebases);
+        }
+    }
+
+    public int getThreads() {
+        return searches.length;
+    }
+
+    public SearchResult search(ChessMatch position, long moveTimeMillis) {
+        return search(position, moveTimeMillis, Long.MAX_VALUE, Search.MAX_DEPTH);
+    }
+
+    public SearchResult search(ChessMatch position, long moveTimeMillis, long maxNodes, int maxDepth) {
+        // Once per move, not once per thread, so every entry of this search gets the same age
+        table.newSearch();
+        AtomicBoolean stop = new AtomicBoolean();
+        // Each Search copies the position itself, so the helpers can all start from the caller's match
+        List<Future<SearchResult>> helperResults = new ArrayList<>(searches.length - 1);
+        for (int i = 1; i < searches.length; i++) {
+            Search helper = searches[i];
+            helper.setSharedStop(stop);
+            helperResults.add(helpers.submit(() -> helper.search(position, Search.INFINITE_TIME, Long.MAX_VALUE, maxDepth)));
+        }
+
+        SearchResult main = searches[0].search(position, moveTimeMillis, maxNodes, maxDepth);
+        stop.set(true);
+        long nodes = main.getNodes();
+        for (Future<SearchResult> result : helperResults) {
+            try {
+                nodes += result.get().getNodes();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Search helper failed", e.getCause());
+            }
+        }
+        return new SearchResult(main.getBestMove(), main.getScore(), main.getDepth(), nodes, main.getNanos());
+    }
+
+    // Stops the helper threads; the engine cannot search after this
+    @Override
+    public void close() {
+        if (helpers != null) {
+            helpers.shutdownNow();
+        }
+    }
+
+    public static void main(String[] args) {
+        int depth = (args.length > 0) ? Integer.parseInt(args[0]) : 9;
+        int maxThreads = (args.length > 1) ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+
+        ChessMatch position = new ChessMatch();
+        // 1, 2, 4, ... below maxThreads, then maxThreads itself, so the last run always uses every core
+        int[] threadCounts = new int[32];
+        int runs = 0;
+        for (int threads = 1; threads < maxThreads; threads *= 2) {
+            threadCounts[runs++] = threads;
+        }
+        threadCounts[runs++] = maxThreads;
+
+        long baseline = 0;
+        for (int run = 0; run < runs; run++) {
+            int threads = threadCounts[run];
+            SearchResult result;
+            try (ParallelSearch search = new ParallelSearch(new TranspositionTable(256), threads)) {
+                result = search.search(position, Search.INFINITE_TIME, Long.MAX_VALUE, depth);
+            }
+            if (threads == 1) {
+                baseline = result.getNanos();
+            }
+            System.out.printf("%2d threads: depth %d in %d ms, %d nodes/s, speedup %.2f%n", threads, result.getDepth(),
+                    result.getNanos() / 1_000_000, result.getNodesPerSecond(), (double) baseline / result.getNanos());
+        }
+    }
+}
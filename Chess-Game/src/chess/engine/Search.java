@@ -0,0 +1,324 @@
+package chess.engine;
+
+import chess.ChessMatch;
+import chess.Move;
+import chess.MoveList;
+import chess.tablebase.Tablebases;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Iterative-deepening alpha-beta search with a quiescence search over captures.
+ * The search runs on its own copy of the match, so the caller's ChessMatch is never touched,
+ * and it stops when the time or node budget runs out, returning the best move of the last
+ * completed iteration.
+ */
+public class Search {
+
+    public static final int INFINITY = 32000;
+    public static final int MATE = 31000;
+    public static final int MAX_PLY = 128;
+    public static final int MAX_DEPTH = 64;
+    // Move time meaning "until the node or depth limit, or an outside stop"
+    public static final long INFINITE_TIME = Long.MAX_VALUE;
+
+    private static final int TT_MOVE_SCORE = 1_000_000;
+    private static final int CAPTURE_SCORE = 100_000;
+    private static final int PROMOTION_SCORE = 90_000;
+    private static final int KILLER_SCORE = 80_000;
+
+    private final TranspositionTable table;
+    private Tablebases tablebases;
+    private final MoveList[] lists = new MoveList[MAX_PLY + 1];
+    private final int[][] orderScores = new int[MAX_PLY + 1][MoveList.CAPACITY];
+    private final int[][] killers = new int[MAX_PLY + 1][2];
+
+    private ChessMatch match;
+    private long nodes;
+    private long maxNodes;
+    private long deadline;
+    private boolean stopped;
+    private int rootBestMove;
+
+    // Lazy SMP: helpers start deeper and stop when the main search raises the shared flag
+    private AtomicBoolean sharedStop;
+    private int depthOffset;
+    private boolean agesTable = true;
+
+    public Search(TranspositionTable table) {
+        this.table = table;
+        for (int i = 0; i < lists.length; i++) {
+            lists[i] = new MoveList();
+        }
+    }
+
+    public SearchResult search(ChessMatch position, long moveTimeMillis) {
+        return search(position, moveTimeMillis, Long.MAX_VALUE, MAX_DEPTH);
+    }
+
+    public SearchResult search(ChessMatch position, long moveTimeMillis, long maxNodes, int maxDepth) {
+        long start = System.nanoTime();
+        this.match = new ChessMatch(position);
+        this.maxNodes = maxNodes;
+        this.deadline = (moveTimeMillis == INFINITE_TIME) ? Long.MAX_VALUE : start + moveTimeMillis * 1_000_000L;
+        this.nodes = 0;
+        this.stopped = false;
+        for (int[] k : killers) {
+            k[0] = Move.NONE;
+            k[1] = Move.NONE;
+        }
+        if (agesTable) {
+            table.newSearch();
+        }
+
+        MoveList rootMoves = lists[0];
+        match.generateMoves(rootMoves);
+        if (rootMoves.isEmpty()) {
+            return new SearchResult(Move.NONE, match.getCheck() ? -MATE : 0, 0, 0, System.nanoTime() - start);
+        }
+
+        if (tablebases != null) {
+            int score = tablebases.probe(match);
+            int move = (score != Tablebases.UNKNOWN) ? tablebases.bestMove(match, rootMoves) : Move.NONE;
+            // No move when none of the children is in a loaded table (a promotion into a missing ending), so search
+            if (move != Move.NONE) {
+                return new SearchResult(move, score, 0, 1, System.nanoTime() - start);
+            }
+        }
+
+        int bestMove = rootMoves.get(0);
+        int bestScore = 0;
+        int completedDepth = 0;
+        for (int depth = 1 + depthOffset; depth <= maxDepth; depth++) {
+            rootBestMove = Move.NONE;
+            int score = alphaBeta(depth, 0, -INFINITY, INFINITY);
+            if (stopped) {
+                break;
+            }
+            bestMove = rootBestMove;
+            bestScore = score;
+            completedDepth = depth;
+            if (Math.abs(score) >= MATE - MAX_PLY) {
+                break; // Forced mate found
+            }
+        }
+        return new SearchResult(bestMove, bestScore, completedDepth, nodes, System.nanoTime() - start);
+    }
+
+    private int alphaBeta(int depth, int ply, int alpha, int beta) {
+        if (depth <= 0) {
+            return quiescence(ply, alpha, beta);
+        }
+        if (checkLimits()) {
+            return 0;
+        }
+        nodes++;
+
+        // Drawn by rule below the root; a single repetition is enough, since the side that repeats could again
+        if (ply > 0 && (match.getHalfmoveClock() >= 100 || match.isRepetition() || match.hasInsufficientMaterial())) {
+            return 0;
+        }
+
+        long key = match.getZobristKey();
+        int ttMove = Move.NONE;
+        long entry = table.probe(key);
+        if (entry != 0) {
+            ttMove = TranspositionTable.move(entry);
+            if (ply > 0 && TranspositionTable.depth(entry) >= depth) {
+                int score = fromTable(TranspositionTable.score(entry), ply);
+                int bound = TranspositionTable.bound(entry);
+                if (bound == TranspositionTable.EXACT
+                        || (bound == TranspositionTable.LOWER_BOUND && score >= beta)
+                        || (bound == TranspositionTable.UPPER_BOUND && score <= alpha)) {
+                    return score;
+                }
+            }
+        }
+
+        // Endgame tables give the exact result, so there is nothing left to search below this node
+        if (tablebases != null && ply > 0) {
+            int score = tablebases.probe(match);
+            if (score != Tablebases.UNKNOWN) {
+                return fromTable(score, ply);
+            }
+        }
+
+        MoveList list = lists[ply];
+        match.generateMoves(list);
+        if (list.isEmpty()) {
+            return match.getCheck() ? -MATE + ply : 0;
+        }
+        if (ply >= MAX_PLY) {
+            return Evaluation.evaluate(match);
+        }
+        scoreMoves(list, ply, ttMove);
+
+        int originalAlpha = alpha;
+        int bestScore = -INFINITY;
+        int bestMove = Move.NONE;
+        for (int i = 0; i < list.size(); i++) {
+            int move = pickMove(list, ply, i);
+            match.makeMove(move);
+            // Check extension: a move that gives check is searched one ply deeper
+            int extension = match.getCheck() ? 1 : 0;
+            int score = -alphaBeta(depth - 1 + extension, ply + 1, -beta, -alpha);
+            match.undoMove();
+            if (stopped) {
+                return 0;
+            }
+            if (score > bestScore) {
+                bestScore = score;
+                bestMove = move;
+                if (ply == 0) {
+                    rootBestMove = move;
+                }
+            }
+            if (score > alpha) {
+                alpha = score;
+            }
+            if (alpha >= beta) {
+                if (!Move.isCapture(move) && killers[ply][0] != move) {
+                    killers[ply][1] = killers[ply][0];
+                    killers[ply][0] = move;
+                }
+                break;
+            }
+        }
+
+        int bound = (bestScore >= beta) ? TranspositionTable.LOWER_BOUND
+                : (bestScore > originalAlpha) ? TranspositionTable.EXACT : TranspositionTable.UPPER_BOUND;
+        table.store(key, bestMove, toTable(bestScore, ply), depth, bound);
+        return bestScore;
+    }
+
+    // Searches captures and promotions until the position is quiet; every evasion when in check
+    private int quiescence(int ply, int alpha, int beta) {
+        if (checkLimits()) {
+            return 0;
+        }
+        nodes++;
+
+        boolean inCheck = match.getCheck();
+        MoveList list = lists[ply];
+        match.generateMoves(list);
+        if (list.isEmpty()) {
+            return inCheck ? -MATE + ply : 0;
+        }
+        int standPat = Evaluation.evaluate(match);
+        if (ply >= MAX_PLY) {
+            return standPat;
+        }
+        int bestScore = -INFINITY;
+        if (!inCheck) {
+            if (standPat >= beta) {
+                return standPat;
+            }
+            if (standPat > alpha) {
+                alpha = standPat;
+            }
+            bestScore = standPat;
+        }
+        scoreMoves(list, ply, Move.NONE);
+
+        for (int i = 0; i < list.size(); i++) {
+            int move = pickMove(list, ply, i);
+            if (!inCheck && !Move.isCapture(move) && !Move.isPromotion(move)) {
+                continue;
+            }
+            match.makeMove(move);
+            int score = -quiescence(ply + 1, -beta, -alpha);
+            match.undoMove();
+            if (stopped) {
+                return 0;
+            }
+            if (score > bestScore) {
+                bestScore = score;
+            }
+            if (score > alpha) {
+                alpha = score;
+            }
+            if (alpha >= beta) {
+                break;
+            }
+        }
+        return bestScore;
+    }
+
+    public void setTablebases(Tablebases tablebases) {
+        this.tablebases = tablebases;
+    }
+
+    void setSharedStop(AtomicBoolean sharedStop) {
+        this.sharedStop = sharedStop;
+    }
+
+    void setDepthOffset(int depthOffset) {
+        this.depthOffset = depthOffset;
+    }
+
+    // ParallelSearch ages the shared table itself, once per move, so its searches must not
+    void setAgesTable(boolean agesTable) {
+        this.agesTable = agesTable;
+    }
+
+    private boolean checkLimits() {
+        if (!stopped && (nodes >= maxNodes || ((nodes & 1023) == 0
+                && (System.nanoTime() >= deadline || (sharedStop != null && sharedStop.get()))))) {
+            stopped = true;
+        }
+        return stopped;
+    }
+
+    // Hash move first, then captures by most valuable victim / least valuable attacker, promotions and killers
+    private void scoreMoves(MoveList list, int ply, int ttMove) {
+        int[] scores = orderScores[ply];
+        for (int i = 0; i < list.size(); i++) {
+            int move = list.get(i);
+            int score = 0;
+            if (move == ttMove) {
+                score = TT_MOVE_SCORE;
+            } else if (Move.isCapture(move)) {
+                int victim = (Move.flags(move) == Move.EN_PASSANT) ? Evaluation.PIECE_VALUES[0]
+                        : Evaluation.PIECE_VALUES[match.getPiece(Move.to(move)).getType().ordinal()];
+                int attacker = Evaluation.PIECE_VALUES[match.getPiece(Move.from(move)).getType().ordinal()];
+                score = CAPTURE_SCORE + victim * 10 - attacker;
+            } else if (Move.isPromotion(move)) {
+                score = PROMOTION_SCORE + Evaluation.PIECE_VALUES[Move.promotion(move).ordinal()];
+            } else if (move == killers[ply][0] || move == killers[ply][1]) {
+                score = KILLER_SCORE;
+            }
+            scores[i] = score;
+        }
+    }
+
+    // Selection sort step: brings the best remaining move to position i
+    private int pickMove(MoveList list, int ply, int i) {
+        int[] scores = orderScores[ply];
+        int best = i;
+        for (int j = i + 1; j < list.size(); j++) {
+            if (scores[j] > scores[best]) {
+                best = j;
+            }
+        }
+        if (best != i) {
+            list.swap(i, best);
+            int score = scores[i];
+            scores[i] = scores[best];
+            scores[best] = score;
+        }
+        return list.get(i);
+    }
+
+    // Mate scores are stored relative to the node, not the root
+    private static int toTable(int score, int ply) {
+        if (score >= MATE - MAX_PLY) return score + ply;
+        if (score <= -MATE + MAX_PLY) return score - ply;
+        return score;
+    }
+
+    private static int fromTable(int score, int ply) {
+        if (score >= MATE - MAX_PLY) return score - ply;
+        if (score <= -MATE + MAX_PLY) return score + ply;
+        return score;
+    }
+}
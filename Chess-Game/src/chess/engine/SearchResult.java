@@ -0,0 +1,67 @@
+package chess.engine;
+
+import chess.ChessPosition;
+import chess.Move;
+import chess.PieceType;
+
+public class SearchResult {
+
+    private final int bestMove;
+    private final int score;
+    private final int depth;
+    private final long nodes;
+    private final long nanos;
+
+    public SearchResult(int bestMove, int score, int depth, long nodes, long nanos) {
+        this.bestMove = bestMove;
+        this.score = score;
+        this.depth = depth;
+        this.nodes = nodes;
+        this.nanos = nanos;
+    }
+
+    // Packed move (see chess.Move), or Move.NONE when the position has no legal moves
+    public int getBestMove() {
+        return bestMove;
+    }
+
+    public ChessPosition getSource() {
+        return ChessPosition.fromSquare(Move.from(bestMove));
+    }
+
+    public ChessPosition getTarget() {
+        return ChessPosition.fromSquare(Move.to(bestMove));
+    }
+
+    // Piece to pass to replacePromotedPiece, or null when the move is not a promotion
+    public PieceType getPromotion() {
+        return Move.promotion(bestMove);
+    }
+
+    // Centipawns from the side to move's point of view
+    public int getScore() {
+        return score;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    public long getNanos() {
+        return nanos;
+    }
+
+    public long getNodesPerSecond() {
+        return (nanos == 0) ? 0 : nodes * 1_000_000_000L / nanos;
+    }
+
+    @Override
+    public String toString() {
+        return Move.toString(bestMove) + " (depth " + depth + ", score " + score + ", " + nodes + " nodes, "
+                + getNodesPerSecond() + " nodes/s, " + nanos / 1_000_000 + " ms)";
+    }
+}
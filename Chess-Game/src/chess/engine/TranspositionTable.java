@@ -0,0 +1,132 @@
+package chess.engine;
+
+import java.util.Arrays;
+
+/**
+ * Fixed-size, lock-free transposition table keyed by ChessMatch.getZobristKey().
+ *
+ * Each entry is two longs in one long[]: the key XOR-ed with the data word, then the data word.
+ * A reader only accepts an entry whose two halves XOR back to its key, so a slot torn by two
+ * threads writing at once reads as a miss instead of returning another position's data.
+ * Entries are grouped in buckets of four (one 64-byte cache line). A new entry replaces the
+ * same position, an empty slot, or else the slot that is shallowest after an age penalty.
+ *
+ * Data word layout: bits 0-18 best move (packed Move), 19-34 score, 35-42 depth (0-255),
+ * 43-44 bound, 45-50 age.
+ */
+public class TranspositionTable {
+
+    public static final int EXACT = 1;
+    public static final int LOWER_BOUND = 2;
+    public static final int UPPER_BOUND = 3;
+
+    private static final int BUCKET_ENTRIES = 4;
+    private static final int AGE_MASK = 0x3F;
+
+    private final long[] table;
+    private final long bucketMask;
+    private volatile int age;
+
+    public TranspositionTable(int megabytes) {
+        if (megabytes < 1) {
+            throw new IllegalArgumentException("Transposition table size must be at least 1 MB.");
+        }
+        long buckets = Long.highestOneBit((long) megabytes * 1024 * 1024 / (BUCKET_ENTRIES * 16));
+        // A long[] is limited to Integer.MAX_VALUE elements
+        buckets = Math.min(buckets, 1L << 26);
+        table = new long[(int) (buckets * BUCKET_ENTRIES * 2)];
+        bucketMask = buckets - 1;
+    }
+
+    // Call once per search, so entries from older searches become preferred victims
+    public void newSearch() {
+        age = (age + 1) & AGE_MASK;
+    }
+
+    public void clear() {
+        Arrays.fill(table, 0L);
+        age = 0;
+    }
+
+    // Returns the data word stored for the key, or 0 when there is none
+    public long probe(long key) {
+        int base = bucketBase(key);
+        for (int i = 0; i < BUCKET_ENTRIES; i++) {
+            int slot = base + i * 2;
+            long data = table[slot + 1];
+            if (data != 0 && (table[slot] ^ data) == key) {
+                return data;
+            }
+        }
+        return 0L;
+    }
+
+    public void store(long key, int move, int score, int depth, int bound) {
+        int base = bucketBase(key);
+        int currentAge = age;
+        int victim = base;
+        int victimWorth = Integer.MAX_VALUE;
+        for (int i = 0; i < BUCKET_ENTRIES; i++) {
+            int slot = base + i * 2;
+            long data = table[slot + 1];
+            if (data == 0 || (table[slot] ^ data) == key) {
+                // Keep the old best move when the new search did not find one
+                if (data != 0 && move == 0) {
+                    move = move(data);
+                }
+                victim = slot;
+                break;
+            }
+            int ageDistance = (currentAge - age(data)) & AGE_MASK;
+            int worth = depth(data) - 4 * ageDistance;
+            if (worth < victimWorth) {
+                victimWorth = worth;
+                victim = slot;
+            }
+        }
+        long data = (move & 0x7FFFFL)
+                | ((long) (score & 0xFFFF) << 19)
+                | ((long) (depth & 0xFF) << 35)
+                | ((long) bound << 43)
+                | ((long) currentAge << 45);
+        table[victim + 1] = data;
+        table[victim] = key ^ data;
+    }
+
+    // Occupied slots among the first thousand, from this search's age (the UCI "hashfull" figure)
+    public int hashfull() {
+        int used = 0;
+        int sampled = Math.min(1000, table.length / 2);
+        for (int i = 0; i < sampled; i++) {
+            long data = table[i * 2 + 1];
+            if (data != 0 && age(data) == age) {
+                used++;
+            }
+        }
+        return used * 1000 / sampled;
+    }
+
+    public static int move(long data) {
+        return (int) (data & 0x7FFFF);
+    }
+
+    public static int score(long data) {
+        return (short) (data >>> 19);
+    }
+
+    public static int depth(long data) {
+        return (int) ((data >>> 35) & 0xFF);
+    }
+
+    public static int bound(long data) {
+        return (int) ((data >>> 43) & 0x3);
+    }
+
+    private static int age(long data) {
+        return (int) ((data >>> 45) & AGE_MASK);
+    }
+
+    private int bucketBase(long key) {
+        return (int) ((key >>> 32) & bucketMask) * BUCKET_ENTRIES * 2;
+    }
+}
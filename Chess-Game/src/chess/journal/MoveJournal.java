@@ -0,0 +1,494 @@
+package chess.journal;
+
+import chess.ChessException;
+import chess.ChessMatch;
+import chess.ChessPosition;
+import chess.MatchListener;
+import chess.Move;
+import chess.PieceType;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.ObjIntConsumer;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only log of the moves of many live matches, shared by all of them so one fsync covers
+ * every match that wrote since the last one (group commit).
+ *
+ * Records are a type byte, the match id and a 16-bit payload:
+ * MOVE carries Move.compact, PROMOTION the PieceType ordinal chosen by replacePromotedPiece,
+ * CLOSE nothing, and SNAPSHOT the length of the FEN text that follows it.
+ * Each record ends with a CRC-32C of everything before it, so recovery can tell a record torn by a crash,
+ * or damaged on disk, from a real one.
+ * Every attached match writes a snapshot when it is attached and then every snapshotInterval plies,
+ * so recovery only has to replay the moves after a match's last snapshot. An undo or redo also writes
+ * a snapshot, since replaying a takeback could need moves from before the last one.
+ */
+public class MoveJournal implements Closeable {
+
+    static final byte MOVE = 1;
+    static final byte PROMOTION = 2;
+    static final byte SNAPSHOT = 3;
+    static final byte CLOSE = 4;
+    // Type, id and payload, then the checksum
+    static final int HEADER_BYTES = 7;
+    static final int RECORD_BYTES = HEADER_BYTES + 4;
+
+    private static final int BUFFER_BYTES = 1 << 20;
+    private static final PieceType[] TYPES = PieceType.values();
+
+    private final FileChannel channel;
+    private final int snapshotInterval;
+    private final boolean synchronous;
+    private final Thread flusher;
+
+    // Writers fill the active buffer while the flusher writes and forces the other one
+    private final Object lock = new Object();
+    private final CRC32C crc = new CRC32C();
+    private ByteBuffer active = ByteBuffer.allocate(BUFFER_BYTES);
+    private ByteBuffer flushing = ByteBuffer.allocate(BUFFER_BYTES);
+    private long appended;
+    private long durable;
+    private long records;
+    private long commits;
+    private boolean closed;
+    private IOException failure;
+
+    /**
+     * Opens the journal for appending, creating the file if needed.
+     *
+     * @param synchronous when true, performChessMove returns only once its record is on disk
+     */
+    public MoveJournal(Path file, int snapshotInterval, boolean synchronous) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        this.snapshotInterval = snapshotInterval;
+        this.synchronous = synchronous;
+        appended = channel.size();
+        durable = appended;
+        channel.position(appended);
+        flusher = new Thread(this::flushLoop, "move-journal-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    // Starts journaling a match under the given id, beginning with a snapshot of its current position
+    public void attach(int id, ChessMatch match) {
+        MatchJournal journal = new MatchJournal(id);
+        journal.snapshot(match);
+        match.setListener(journal);
+    }
+
+    // Stops journaling a finished match; recovery will leave it out
+    public void detach(int id, ChessMatch match) {
+        match.setListener(null);
+        commit(append(CLOSE, id, 0, null));
+    }
+
+    // Blocks until every record appended so far is on disk
+    public void flush() {
+        long position;
+        synchronized (lock) {
+            position = appended;
+        }
+        awaitDurable(position);
+    }
+
+    public long getRecords() {
+        synchronized (lock) {
+            return records;
+        }
+    }
+
+    public long getCommits() {
+        synchronized (lock) {
+            return commits;
+        }
+    }
+
+    public long getBytes() {
+        synchronized (lock) {
+            return appended;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (lock) {
+            closed = true;
+            lock.notifyAll();
+        }
+        try {
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        channel.close();
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private class MatchJournal implements MatchListener {
+        private final int id;
+        private final StringBuilder fen = new StringBuilder(90);
+        private int pliesSinceSnapshot;
+
+        MatchJournal(int id) {
+            this.id = id;
+        }
+
+        @Override
+        public void movePlayed(ChessMatch match, int move) {
+            long position = append(MOVE, id, Move.compact(move), null);
+            pliesSinceSnapshot++;
+            // A pending promotion choice would not survive the snapshot, so wait until it is made
+            if (pliesSinceSnapshot >= snapshotInterval && match.getPromoted() == null) {
+                position = snapshot(match);
+            }
+            commit(position);
+        }
+
+        @Override
+        public void pieceReplaced(ChessMatch match, PieceType type) {
+            long position = append(PROMOTION, id, type.ordinal(), null);
+            if (pliesSinceSnapshot >= snapshotInterval) {
+                position = snapshot(match);
+            }
+            commit(position);
+        }
+
+        @Override
+        public void moveUndone(ChessMatch match) {
+            commit(snapshot(match));
+        }
+
+        @Override
+        public void moveRedone(ChessMatch match, int move) {
+            commit(snapshot(match));
+        }
+
+        long snapshot(ChessMatch match) {
+            fen.setLength(0);
+            match.appendFen(fen);
+            pliesSinceSnapshot = 0;
+            return append(SNAPSHOT, id, fen.length(), fen);
+        }
+    }
+
+    private void commit(long position) {
+        if (synchronous) {
+            awaitDurable(position);
+        }
+    }
+
+    // Returns the journal length once the record is in, which is what awaitDurable waits for
+    private long append(byte type, int id, int payload, CharSequence text) {
+        int size = RECORD_BYTES + ((text == null) ? 0 : text.length());
+        synchronized (lock) {
+            while (active.remaining() < size) {
+                checkOpen();
+                lock.notifyAll();
+                waitOnLock();
+            }
+            checkOpen();
+            int recordStart = active.position();
+            boolean firstInBatch = recordStart == 0;
+            active.put(type).putInt(id).putShort((short) payload);
+            if (text != null) {
+                for (int i = 0; i < text.length(); i++) {
+                    active.put((byte) text.charAt(i));
+                }
+            }
+            crc.reset();
+            crc.update(active.array(), recordStart, active.position() - recordStart);
+            active.putInt((int) crc.getValue());
+            appended += size;
+            records++;
+            if (firstInBatch) {
+                lock.notifyAll();
+            }
+            return appended;
+        }
+    }
+
+    private void awaitDurable(long position) {
+        synchronized (lock) {
+            while (durable < position) {
+                if (failure != null) {
+                    throw new UncheckedIOException(failure);
+                }
+                waitOnLock();
+            }
+        }
+    }
+
+    private void checkOpen() {
+        if (failure != null) {
+            throw new UncheckedIOException(failure);
+        }
+        if (closed) {
+            throw new ChessException("The journal is closed.");
+        }
+    }
+
+    private void waitOnLock() {
+        try {
+            lock.wait();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ChessException("Interrupted while waiting for the journal.");
+        }
+    }
+
+    // Everything appended while one batch is being forced goes out in the next one
+    private void flushLoop() {
+        while (true) {
+            long target;
+            synchronized (lock) {
+                while (active.position() == 0 && !closed) {
+                    try {
+                        lock.wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                if (active.position() == 0) {
+                    return;
+                }
+                ByteBuffer full = active;
+                active = flushing;
+                flushing = full;
+                target = appended;
+                lock.notifyAll();
+            }
+            try {
+                flushing.flip();
+                while (flushing.hasRemaining()) {
+                    channel.write(flushing);
+                }
+                channel.force(false);
+                flushing.clear();
+            } catch (IOException e) {
+                synchronized (lock) {
+                    failure = e;
+                    lock.notifyAll();
+                }
+                return;
+            }
+            synchronized (lock) {
+                durable = target;
+                commits++;
+                lock.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Rebuilds every match that was attached and not detached. The file is scanned once, keeping for each
+     * match only its last snapshot and the records after it, then the matches are rebuilt in parallel
+     * from those snapshots. A record cut short by a crash, or one whose checksum does not match, ends the scan,
+     * and it and everything after it are truncated away. A match whose records still fail to replay is
+     * reported in getFailedIds without stopping the others. The consumer is called from several threads.
+     */
+    public static Recovery recover(Path file, int threads, ObjIntConsumer<ChessMatch> consumer) throws IOException {
+        long start = System.nanoTime();
+        Map<Integer, Tail> tails = new HashMap<>();
+        long valid = 0;
+        long scanned = 0;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocate(BUFFER_BYTES);
+            CRC32C crc = new CRC32C();
+            boolean done = false;
+            while (!done) {
+                // The end of the file, or bytes that are not a whole record with a matching checksum, end the scan
+                done = channel.read(buffer) <= 0;
+                buffer.flip();
+                while (buffer.remaining() >= RECORD_BYTES) {
+                    int recordStart = buffer.position();
+                    byte type = buffer.get();
+                    int id = buffer.getInt();
+                    int payload = buffer.getShort() & 0xFFFF;
+                    int textBytes = (type == SNAPSHOT) ? payload : 0;
+                    if (buffer.remaining() < textBytes + 4) {
+                        buffer.position(recordStart);
+                        break;
+                    }
+                    crc.reset();
+                    crc.update(buffer.array(), recordStart, HEADER_BYTES + textBytes);
+                    if (buffer.getInt(recordStart + HEADER_BYTES + textBytes) != (int) crc.getValue()) {
+                        buffer.position(recordStart);
+                        done = true;
+                        break;
+                    }
+                    if (type == SNAPSHOT) {
+                        byte[] fen = new byte[payload];
+                        buffer.get(fen);
+                        tails.computeIfAbsent(id, k -> new Tail()).snapshot(fen);
+                    } else if (type == MOVE || type == PROMOTION) {
+                        tails.computeIfAbsent(id, k -> new Tail()).add(type, payload);
+                    } else if (type == CLOSE) {
+                        tails.remove(id);
+                    } else {
+                        buffer.position(recordStart);
+                        done = true;
+                        break;
+                    }
+                    buffer.position(recordStart + HEADER_BYTES + textBytes + 4);
+                    valid += buffer.position() - recordStart;
+                    scanned++;
+                }
+                buffer.compact();
+            }
+            if (valid < channel.size()) {
+                channel.truncate(valid);
+            }
+        }
+
+        int[] ids = new int[tails.size()];
+        Tail[] entries = new Tail[tails.size()];
+        int n = 0;
+        for (Map.Entry<Integer, Tail> e : tails.entrySet()) {
+            ids[n] = e.getKey();
+            entries[n++] = e.getValue();
+        }
+        Recovery recovery = new Recovery(scanned, valid);
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            pool.invoke(new ReplayTask(ids, entries, 0, n, consumer, recovery));
+        } finally {
+            pool.shutdown();
+        }
+        recovery.nanos = System.nanoTime() - start;
+        return recovery;
+    }
+
+    // A match's last snapshot and the records written after it
+    private static class Tail {
+        private byte[] fen;
+        private int[] records = new int[8];
+        private int size;
+
+        void snapshot(byte[] fen) {
+            this.fen = fen;
+            size = 0;
+        }
+
+        void add(byte type, int payload) {
+            if (size == records.length) {
+                records = Arrays.copyOf(records, size * 2);
+            }
+            records[size++] = (type << 16) | payload;
+        }
+
+        ChessMatch replay() {
+            ChessMatch match = (fen == null) ? new ChessMatch() : new ChessMatch(new String(fen, StandardCharsets.US_ASCII));
+            for (int i = 0; i < size; i++) {
+                int payload = records[i] & 0xFFFF;
+                if ((records[i] >>> 16) == MOVE) {
+                    match.performChessMove(ChessPosition.fromSquare(Move.from(payload)), ChessPosition.fromSquare(Move.to(payload)));
+                } else if (payload < TYPES.length) {
+                    match.replacePromotedPiece(TYPES[payload]);
+                } else {
+                    throw new ChessException("Damaged promotion record: " + payload);
+                }
+            }
+            return match;
+        }
+    }
+
+    @SuppressWarnings("serial")
+    private static class ReplayTask extends RecursiveAction {
+        private final int[] ids;
+        private final Tail[] tails;
+        private final int from;
+        private final int to;
+        private final ObjIntConsumer<ChessMatch> consumer;
+        private final Recovery recovery;
+
+        ReplayTask(int[] ids, Tail[] tails, int from, int to, ObjIntConsumer<ChessMatch> consumer, Recovery recovery) {
+            this.ids = ids;
+            this.tails = tails;
+            this.from = from;
+            this.to = to;
+            this.consumer = consumer;
+            this.recovery = recovery;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 256) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new ReplayTask(ids, tails, from, mid, consumer, recovery),
+                        new ReplayTask(ids, tails, mid, to, consumer, recovery));
+                return;
+            }
+            for (int i = from; i < to; i++) {
+                ChessMatch match;
+                try {
+                    match = tails[i].replay();
+                } catch (RuntimeException e) {
+                    // A damaged record or snapshot fails only its own match
+                    recovery.failedIds.add(ids[i]);
+                    continue;
+                }
+                recovery.matches.incrementAndGet();
+                recovery.replayed.addAndGet(tails[i].size);
+                consumer.accept(match, ids[i]);
+            }
+        }
+    }
+
+    public static class Recovery {
+        private final long records;
+        private final long bytes;
+        private final AtomicLong matches = new AtomicLong();
+        private final AtomicLong replayed = new AtomicLong();
+        // Matches whose records no longer replay (a damaged journal)
+        private final List<Integer> failedIds = Collections.synchronizedList(new ArrayList<>());
+        private long nanos;
+
+        private Recovery(long records, long bytes) {
+            this.records = records;
+            this.bytes = bytes;
+        }
+
+        public long getMatches() {
+            return matches.get();
+        }
+
+        // Records replayed after the snapshots
+        public long getReplayed() {
+            return replayed.get();
+        }
+
+        public List<Integer> getFailedIds() {
+            return failedIds;
+        }
+
+        public long getNanos() {
+            return nanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Recovered %d matches from %d records (%.1f MB) in %d ms, replaying %d records after snapshots, %d failed",
+                    getMatches(), records, bytes / 1e6, nanos / 1_000_000, getReplayed(), failedIds.size());
+        }
+    }
+}
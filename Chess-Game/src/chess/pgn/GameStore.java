@@ -0,0 +1,126 @@
+package chess.pgn;
+
+import chess.ChessException;
+import chess.ChessMatch;
+import chess.Move;
+import chess.MoveList;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Imported games in compact form: every move as a 16-bit Move.compact value in one shared array,
+ * with the end offset and result of each game alongside. A game of 80 plies takes 165 bytes.
+ */
+public class GameStore {
+
+    public static final byte UNKNOWN = 0;
+    public static final byte WHITE_WINS = 1;
+    public static final byte BLACK_WINS = 2;
+    public static final byte DRAW = 3;
+
+    private short[] moves = new short[4096];
+    private int moveCount;
+    private int[] gameEnds = new int[64];
+    private byte[] results = new byte[64];
+    private int gameCount;
+
+    public int getGameCount() {
+        return gameCount;
+    }
+
+    public int getMoveCount() {
+        return moveCount;
+    }
+
+    public int getLength(int game) {
+        return gameEnds[game] - gameStart(game);
+    }
+
+    public byte getResult(int game) {
+        return results[game];
+    }
+
+    public short getMove(int game, int ply) {
+        return moves[gameStart(game) + ply];
+    }
+
+    // Plays a stored game from the initial position
+    public ChessMatch replay(int game) {
+        ChessMatch match = new ChessMatch();
+        MoveList legalMoves = new MoveList();
+        for (int i = gameStart(game); i < gameEnds[game]; i++) {
+            match.generateMoves(legalMoves);
+            int move = legalMoves.findCompact(moves[i]);
+            if (move == Move.NONE) {
+                throw new ChessException("Stored game " + game + " has an illegal move at ply " + (i - gameStart(game)));
+            }
+            match.makeMove(move);
+        }
+        return match;
+    }
+
+    /**
+     * Writes the store as: game count, then per game its result byte, ply count and moves (big-endian).
+     */
+    public void save(Path file) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), 1 << 16))) {
+            out.writeInt(gameCount);
+            for (int game = 0; game < gameCount; game++) {
+                out.writeByte(results[game]);
+                out.writeShort(getLength(game));
+                for (int i = gameStart(game); i < gameEnds[game]; i++) {
+                    out.writeShort(moves[i]);
+                }
+            }
+        }
+    }
+
+    // The moves added since the last endGame/discardGame belong to the game being imported
+    void addMove(int move) {
+        if (moveCount == moves.length) {
+            moves = Arrays.copyOf(moves, moveCount * 2);
+        }
+        moves[moveCount++] = Move.compact(move);
+    }
+
+    void endGame(byte result) {
+        if (gameCount == gameEnds.length) {
+            gameEnds = Arrays.copyOf(gameEnds, gameCount * 2);
+            results = Arrays.copyOf(results, gameCount * 2);
+        }
+        gameEnds[gameCount] = moveCount;
+        results[gameCount] = result;
+        gameCount++;
+    }
+
+    void discardGame() {
+        moveCount = (gameCount == 0) ? 0 : gameEnds[gameCount - 1];
+    }
+
+    void addAll(GameStore other) {
+        if (moves.length < moveCount + other.moveCount) {
+            moves = Arrays.copyOf(moves, Math.max(moves.length * 2, moveCount + other.moveCount));
+        }
+        if (gameEnds.length < gameCount + other.gameCount) {
+            int capacity = Math.max(gameEnds.length * 2, gameCount + other.gameCount);
+            gameEnds = Arrays.copyOf(gameEnds, capacity);
+            results = Arrays.copyOf(results, capacity);
+        }
+        System.arraycopy(other.moves, 0, moves, moveCount, other.moveCount);
+        for (int i = 0; i < other.gameCount; i++) {
+            gameEnds[gameCount + i] = other.gameEnds[i] + moveCount;
+        }
+        System.arraycopy(other.results, 0, results, gameCount, other.gameCount);
+        moveCount += other.moveCount;
+        gameCount += other.gameCount;
+    }
+
+    private int gameStart(int game) {
+        return (game == 0) ? 0 : gameEnds[game - 1];
+    }
+}
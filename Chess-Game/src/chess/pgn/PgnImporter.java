@@ -0,0 +1,409 @@
+package chess.pgn;
+
+import chess.ChessMatch;
+import chess.MoveList;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Imports PGN archives by memory-mapping the file and replaying every game through ChessMatch.
+ * The file is cut into chunks at game boundaries (a tag line after a blank line) and the chunks are parsed
+ * in parallel, each by its own ChessMatch. Moves are resolved straight from the mapped bytes with San,
+ * so the only Strings created are for the illegal game report.
+ * Games that start from a FEN tag are skipped rather than replayed from the initial position.
+ *
+ * Usage: java chess.pgn.PgnImporter file.pgn [threads] [output file]
+ */
+public class PgnImporter {
+
+    // Chunks are mapped one at a time, so each must stay well below the 2 GB mapping limit
+    private static final long MAX_CHUNK = 256L << 20;
+    // Illegal games kept with details per chunk; the rest are only counted
+    private static final int MAX_REPORTED = 100;
+
+    private final int threads;
+
+    public PgnImporter(int threads) {
+        this.threads = threads;
+    }
+
+    public Report run(Path file) throws IOException {
+        long start = System.nanoTime();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            List<ChunkTask> tasks = new ArrayList<>();
+            long chunks = Math.max(threads * 4L, (size + MAX_CHUNK - 1) / MAX_CHUNK);
+            long chunkStart = 0;
+            for (long k = 1; k <= chunks && chunkStart < size; k++) {
+                long chunkEnd = (k == chunks) ? size : nextGameStart(channel, Math.max(size * k / chunks, chunkStart + 1), size);
+                if (chunkEnd > chunkStart) {
+                    tasks.add(new ChunkTask(channel, chunkStart, chunkEnd));
+                    chunkStart = chunkEnd;
+                }
+            }
+
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            try {
+                pool.submit(() -> RecursiveTask.invokeAll(tasks)).join();
+            } finally {
+                pool.shutdown();
+            }
+
+            Report report = new Report(size);
+            for (ChunkTask task : tasks) {
+                report.add(task.join());
+            }
+            report.nanos = System.nanoTime() - start;
+            return report;
+        }
+    }
+
+    // Offset of the first '[' at or after from that follows a blank line, or size
+    private static long nextGameStart(FileChannel channel, long from, long size) throws IOException {
+        ByteBuffer window = ByteBuffer.allocate(1 << 16);
+        int newlines = 0;
+        long position = from;
+        while (position < size) {
+            window.clear();
+            int read = channel.read(window, position);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                byte b = window.get(i);
+                if (b == '\n') {
+                    newlines++;
+                } else if (b == '[' && newlines >= 2) {
+                    return position + i;
+                } else if (b != '\r') {
+                    newlines = 0;
+                }
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    public static class IllegalGame {
+        private final long offset;
+        private final int ply;
+        private final String token;
+
+        IllegalGame(long offset, int ply, String token) {
+            this.offset = offset;
+            this.ply = ply;
+            this.token = token;
+        }
+
+        public long getOffset() {
+            return offset;
+        }
+
+        public int getPly() {
+            return ply;
+        }
+
+        public String getToken() {
+            return token;
+        }
+
+        @Override
+        public String toString() {
+            return "game at byte " + offset + ": ply " + (ply + 1) + " '" + token + "' is not a legal move";
+        }
+    }
+
+    public static class Report {
+        private final GameStore store = new GameStore();
+        private final List<IllegalGame> illegalGames = new ArrayList<>();
+        private final long bytes;
+        private long games;
+        private long illegal;
+        private long skipped;
+        private long nanos;
+
+        private Report(long bytes) {
+            this.bytes = bytes;
+        }
+
+        private void add(ChunkResult chunk) {
+            store.addAll(chunk.store);
+            illegalGames.addAll(chunk.illegalGames);
+            games += chunk.games;
+            illegal += chunk.illegal;
+            skipped += chunk.skipped;
+        }
+
+        public GameStore getStore() {
+            return store;
+        }
+
+        // Every game seen, including the illegal and skipped ones
+        public long getGames() {
+            return games;
+        }
+
+        public long getIllegal() {
+            return illegal;
+        }
+
+        public long getSkipped() {
+            return skipped;
+        }
+
+        // The first illegal games of each chunk, in file order
+        public List<IllegalGame> getIllegalGames() {
+            return illegalGames;
+        }
+
+        public double getGamesPerSecond() {
+            return games * 1_000_000_000.0 / nanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d games (%d imported, %d illegal, %d skipped), %d moves, %.1f MB in %.2f s: %.0f games/s, %.1f MB/s",
+                    games, store.getGameCount(), illegal, skipped, store.getMoveCount(), bytes / 1e6, nanos / 1e9,
+                    getGamesPerSecond(), bytes / 1e6 / (nanos / 1e9));
+        }
+    }
+
+    private static class ChunkResult {
+        private final GameStore store = new GameStore();
+        private final List<IllegalGame> illegalGames = new ArrayList<>();
+        private long games;
+        private long illegal;
+        private long skipped;
+    }
+
+    @SuppressWarnings("serial")
+    private static class ChunkTask extends RecursiveTask<ChunkResult> {
+        private final FileChannel channel;
+        private final long start;
+        private final long end;
+
+        private final ChessMatch match = new ChessMatch();
+        private final MoveList legalMoves = new MoveList();
+        private ChunkResult result;
+
+        // State of the game being parsed
+        private boolean inGame;
+        private boolean inMoves;
+        private boolean failed;
+        private boolean unsupported;
+        private long gameOffset;
+        private int plies;
+
+        ChunkTask(FileChannel channel, long start, long end) {
+            this.channel = channel;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected ChunkResult compute() {
+            result = new ChunkResult();
+            MappedByteBuffer buffer;
+            try {
+                buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+            } catch (IOException e) {
+                throw new java.io.UncheckedIOException(e);
+            }
+            parse(buffer);
+            return result;
+        }
+
+        private void parse(ByteBuffer buffer) {
+            int n = buffer.limit();
+            int i = 0;
+            while (i < n) {
+                byte b = buffer.get(i);
+                if (b <= ' ') {
+                    i++;
+                    continue;
+                }
+                switch (b) {
+                    case '[':
+                        if (inMoves) {
+                            finishGame(GameStore.UNKNOWN); // Previous game had no termination marker
+                        }
+                        beginGame(i);
+                        if (i + 4 < n && buffer.get(i + 1) == 'F' && buffer.get(i + 2) == 'E' && buffer.get(i + 3) == 'N' && buffer.get(i + 4) == ' ') {
+                            unsupported = true;
+                        }
+                        i = skipPast(buffer, i, n, (byte) ']');
+                        break;
+                    case '{':
+                        i = skipPast(buffer, i, n, (byte) '}');
+                        break;
+                    case ';':
+                        i = skipPast(buffer, i, n, (byte) '\n');
+                        break;
+                    case '(':
+                        i = skipVariation(buffer, i, n);
+                        break;
+                    default:
+                        i = token(buffer, i, n);
+                }
+            }
+            if (inMoves) {
+                finishGame(GameStore.UNKNOWN);
+            }
+        }
+
+        // Handles one movetext token and returns the index after it
+        private int token(ByteBuffer buffer, int i, int n) {
+            int j = i;
+            while (j < n && !isDelimiter(buffer.get(j))) {
+                j++;
+            }
+            byte first = buffer.get(i);
+            if (first == '$' || first == '.') {
+                return j; // Numeric annotation glyph or "..." after a move number
+            }
+            byte outcome = result(buffer, i, j);
+            if (outcome >= 0) {
+                beginGame(i);
+                finishGame(outcome);
+                return j;
+            }
+            if (first >= '1' && first <= '9') {
+                // Move number, possibly glued to the move as in "12.e4"
+                int k = i;
+                while (k < j && buffer.get(k) >= '0' && buffer.get(k) <= '9') {
+                    k++;
+                }
+                while (k < j && buffer.get(k) == '.') {
+                    k++;
+                }
+                if (k == j) {
+                    return j;
+                }
+                i = k;
+            }
+            beginGame(i);
+            inMoves = true;
+            if (!failed && !unsupported) {
+                match.generateMoves(legalMoves);
+                int move = San.resolve(buffer, i, j, match, legalMoves);
+                if (move < 0) {
+                    failed = true;
+                    if (result.illegalGames.size() < MAX_REPORTED) {
+                        byte[] bytes = new byte[j - i];
+                        buffer.get(i, bytes);
+                        result.illegalGames.add(new IllegalGame(gameOffset, plies, new String(bytes, StandardCharsets.US_ASCII)));
+                    }
+                } else {
+                    result.store.addMove(move);
+                    match.makeMove(move);
+                    plies++;
+                }
+            }
+            return j;
+        }
+
+        private void beginGame(int i) {
+            if (!inGame) {
+                inGame = true;
+                gameOffset = start + i;
+            }
+        }
+
+        private void finishGame(byte outcome) {
+            result.games++;
+            if (unsupported) {
+                result.skipped++;
+            } else if (failed) {
+                result.illegal++;
+            }
+            if (unsupported || failed) {
+                result.store.discardGame();
+            } else {
+                result.store.endGame(outcome);
+            }
+            for (; plies > 0; plies--) {
+                match.undoMove();
+            }
+            inGame = false;
+            inMoves = false;
+            failed = false;
+            unsupported = false;
+        }
+
+        // Game termination marker, or -1
+        private static byte result(ByteBuffer buffer, int i, int j) {
+            int length = j - i;
+            byte first = buffer.get(i);
+            if (length == 1 && first == '*') {
+                return GameStore.UNKNOWN;
+            }
+            if (length == 3 && buffer.get(i + 1) == '-') {
+                if (first == '1' && buffer.get(i + 2) == '0') {
+                    return GameStore.WHITE_WINS;
+                }
+                if (first == '0' && buffer.get(i + 2) == '1') {
+                    return GameStore.BLACK_WINS;
+                }
+            }
+            if (length == 7 && first == '1' && buffer.get(i + 1) == '/' && buffer.get(i + 3) == '-') {
+                return GameStore.DRAW;
+            }
+            return -1;
+        }
+
+        private static boolean isDelimiter(byte b) {
+            return b <= ' ' || b == '{' || b == '}' || b == '(' || b == ')' || b == ';' || b == '[';
+        }
+
+        private static int skipPast(ByteBuffer buffer, int i, int n, byte close) {
+            while (i < n && buffer.get(i) != close) {
+                i++;
+            }
+            return i + 1;
+        }
+
+        // Variations may nest and may hold comments with parentheses in them
+        private static int skipVariation(ByteBuffer buffer, int i, int n) {
+            int depth = 0;
+            while (i < n) {
+                byte b = buffer.get(i);
+                if (b == '(') {
+                    depth++;
+                } else if (b == ')' && --depth == 0) {
+                    return i + 1;
+                } else if (b == '{') {
+                    i = skipPast(buffer, i, n, (byte) '}') - 1;
+                }
+                i++;
+            }
+            return n;
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("Usage: java chess.pgn.PgnImporter file.pgn [threads] [output file]");
+            return;
+        }
+        int threads = (args.length > 1) ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        Report report = new PgnImporter(threads).run(Paths.get(args[0]));
+        System.out.println(report);
+        for (IllegalGame game : report.getIllegalGames()) {
+            System.out.println("  " + game);
+        }
+        if (args.length > 2) {
+            report.getStore().save(Paths.get(args[2]));
+        }
+    }
+}
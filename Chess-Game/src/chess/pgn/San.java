@@ -0,0 +1,134 @@
+package chess.pgn;
+
+import chess.Bitboards;
+import chess.ChessMatch;
+import chess.ChessPiece;
+import chess.Move;
+import chess.MoveList;
+import chess.PieceType;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Resolves Standard Algebraic Notation against the legal moves of a position.
+ * Tokens are read straight from a byte buffer, so no String is created per move.
+ */
+public final class San {
+
+    // resolve() results that are not moves
+    public static final int ILLEGAL = -1;
+    public static final int AMBIGUOUS = -2;
+
+    private San() {
+    }
+
+    /**
+     * Finds the legal move written by the SAN token in buffer[start, end), e.g. "Nbxd7+", "e8=Q#", "O-O-O".
+     * legalMoves must hold the legal moves of the match's side to move.
+     * Returns the move, ILLEGAL when nothing matches or the token is malformed, or AMBIGUOUS.
+     */
+    public static int resolve(ByteBuffer buffer, int start, int end, ChessMatch match, MoveList legalMoves) {
+        // Annotations: check, mate and move quality suffixes
+        while (end > start && isSuffix(buffer.get(end - 1))) {
+            end--;
+        }
+        if (end - start < 2) {
+            return ILLEGAL;
+        }
+
+        byte first = buffer.get(start);
+        if (first == 'O' || first == '0') {
+            int flags = (end - start >= 5) ? Move.QUEEN_CASTLE : Move.KING_CASTLE;
+            return single(legalMoves, flags);
+        }
+
+        PieceType type = pieceType(first);
+        int i = start;
+        if (type == null) {
+            type = PieceType.PAWN;
+        } else {
+            i++;
+        }
+
+        PieceType promotion = null;
+        if (type == PieceType.PAWN) {
+            byte last = buffer.get(end - 1);
+            PieceType promoted = pieceType(last);
+            if (promoted != null) {
+                promotion = promoted;
+                end--;
+                if (end > i && buffer.get(end - 1) == '=') {
+                    end--;
+                }
+            }
+        }
+        if (end - i < 2) {
+            return ILLEGAL;
+        }
+        int targetFile = buffer.get(end - 2) - 'a';
+        int targetRank = buffer.get(end - 1) - '1';
+        if (targetFile < 0 || targetFile > 7 || targetRank < 0 || targetRank > 7) {
+            return ILLEGAL;
+        }
+        int target = Bitboards.square(7 - targetRank, targetFile);
+
+        // Whatever is left between piece letter and target is disambiguation and the capture mark
+        int fromColumn = -1;
+        int fromRow = -1;
+        for (int j = i; j < end - 2; j++) {
+            byte b = buffer.get(j);
+            if (b >= 'a' && b <= 'h') {
+                fromColumn = b - 'a';
+            } else if (b >= '1' && b <= '8') {
+                fromRow = 7 - (b - '1');
+            } else if (b != 'x' && b != ':' && b != '-') {
+                return ILLEGAL;
+            }
+        }
+
+        int found = ILLEGAL;
+        for (int k = 0; k < legalMoves.size(); k++) {
+            int move = legalMoves.get(k);
+            int from = Move.from(move);
+            if (Move.to(move) != target || Move.promotion(move) != promotion) {
+                continue;
+            }
+            if ((fromColumn >= 0 && Bitboards.column(from) != fromColumn) || (fromRow >= 0 && Bitboards.row(from) != fromRow)) {
+                continue;
+            }
+            ChessPiece piece = match.getPiece(from);
+            if (piece.getType() != type) {
+                continue;
+            }
+            if (found != ILLEGAL) {
+                return AMBIGUOUS;
+            }
+            found = move;
+        }
+        return found;
+    }
+
+    private static int single(MoveList legalMoves, int flags) {
+        for (int k = 0; k < legalMoves.size(); k++) {
+            if (Move.flags(legalMoves.get(k)) == flags) {
+                return legalMoves.get(k);
+            }
+        }
+        return ILLEGAL;
+    }
+
+    private static boolean isSuffix(byte b) {
+        return b == '+' || b == '#' || b == '!' || b == '?';
+    }
+
+    private static PieceType pieceType(byte b) {
+        switch (b) {
+            case 'N': return PieceType.KNIGHT;
+            case 'B': return PieceType.BISHOP;
+            case 'R': return PieceType.ROOK;
+            case 'Q': return PieceType.QUEEN;
+            case 'K': return PieceType.KING;
+            default: return null;
+        }
+    }
+}
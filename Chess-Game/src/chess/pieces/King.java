@@ -1,18 +1,18 @@
 package chess.pieces;
 
-import boardgame.Position;
-import chess.ChessMatch;
+import chess.Bitboards;
+import chess.ChessBoard;
 import chess.ChessPiece;
 import chess.Color;
-import boardgame.Board;
+import chess.Move;
+import chess.MoveGenerator;
+import chess.MoveList;
+import chess.PieceType;
 
 public class King extends ChessPiece {
 
-    private ChessMatch chessMatch;
-
-    public King(Board board ,Color color,ChessMatch chessMatch) {
-        super(board, color);
-        this.chessMatch = chessMatch;
+    public King(Color color) {
+        super(color);
     }
 
 
@@ -21,85 +21,60 @@ public class King extends ChessPiece {
         return "K";
     }
 
-    private boolean canMove(int row, int column) {
-       ChessPiece p = (ChessPiece) getBoard().piece(new Position(row, column));
-       return p == null || p.getColor() != getColor();
-    }
     @Override
-    public boolean[][] possibleMoves() {
-        boolean[][] mat = new boolean[getBoard().getRows()][getBoard().getColumns()];
-
-        Position p = new Position(0, 0);
+    public PieceType getType() {
+        return PieceType.KING;
+    }
 
-        // above
-        p.setValues(position.getRow() - 1, position.getColumn());
-        if (getBoard().positionExists(p) && canMove(p.getRow(), p.getColumn())) {
-            mat[p.getRow()][p.getColumn()] = true;
-        }
-        // below
-        p.setValues(position.getRow() + 1, position.getColumn());
-        if (getBoard().positionExists(p) && canMove(p.getRow(), p.getColumn())) {
-            mat[p.getRow()][p.getColumn()] = true;
-        }
-        // left
-        p.setValues(position.getRow(), position.getColumn() - 1);
-        if (getBoard().positionExists(p) && canMove(p.getRow(), p.getColumn())) {
-            mat[p.getRow()][p.getColumn()] = true;
-        }
-        // right
-        p.setValues(position.getRow(), position.getColumn() + 1);
-        if (getBoard().positionExists(p) && canMove(p.getRow(), p.getColumn())) {
-            mat[p.getRow()][p.getColumn()] = true;
-        }
-        // northwest
-        p.setValues(position.getRow() - 1, position.getColumn() - 1);
-        if (getBoard().positionExists(p) && canMove(p.getRow(), p.getColumn())) {
-            mat[p.getRow()][p.getColumn()] = true;
-        }
-        // northeast
-        p.setValues(position.getRow() - 1, position.getColumn() + 1);
-        if (getBoard().positionExists(p) && canMove(p.getRow(), p.getColumn())) {
-            mat[p.getRow()][p.getColumn()] = true;
-        }
-        // southwest
-        p.setValues(position.getRow() + 1, position.getColumn() - 1);
-        if (getBoard().positionExists(p) && canMove(p.getRow(), p.getColumn())) {
-            mat[p.getRow()][p.getColumn()] = true;
-        }
-        // southeast
-        p.setValues(position.getRow() + 1, position.getColumn() + 1);
-        if (getBoard().positionExists(p) && canMove(p.getRow(), p.getColumn())) {
-            mat[p.getRow()][p.getColumn()] = true;
-        }
+    @Override
+    public long possibleMovesMask(ChessBoard board, int sq) {
+        long mask = Bitboards.KING_ATTACKS[sq] & targetsMask(board);
 
-        // Castling
-        if (getMoveCount() == 0 && !chessMatch.getCheck()) {
+        // Castling: the board's rights say the king and rook are unmoved; the king may not leave, cross or
+        // land on an attacked square
+        boolean white = getColor() == Color.WHITE;
+        int rights = board.getCastlingRights();
+        int kingside = rights & (white ? MoveGenerator.WHITE_KINGSIDE : MoveGenerator.BLACK_KINGSIDE);
+        int queenside = rights & (white ? MoveGenerator.WHITE_QUEENSIDE : MoveGenerator.BLACK_QUEENSIDE);
+        Color opponent = getColor().opponent();
+        if ((kingside | queenside) != 0 && !board.isSquareAttacked(sq, opponent)) {
+            long occupied = board.getOccupancy();
             // Kingside castling
-            Position rookPosition = new Position(position.getRow(), position.getColumn() + 3);
-            if (testRookCastling(rookPosition)) {
-                Position p1 = new Position(position.getRow(), position.getColumn() + 1);
-                Position p2 = new Position(position.getRow(), position.getColumn() + 2);
-                if (!getBoard().thereIsAPiece(p1) && !getBoard().thereIsAPiece(p2)) {
-                    mat[position.getRow()][position.getColumn() + 2] = true;
+            if (kingside != 0) {
+                long between = Bitboards.bit(sq + 1) | Bitboards.bit(sq + 2);
+                if ((occupied & between) == 0 && !board.isSquareAttacked(sq + 1, opponent)
+                        && !board.isSquareAttacked(sq + 2, opponent)) {
+                    mask |= Bitboards.bit(sq + 2);
                 }
             }
             // Queenside castling
-            rookPosition.setValues(position.getRow(), position.getColumn() - 4);
-            if (testRookCastling(rookPosition)) {
-                Position p1 = new Position(position.getRow(), position.getColumn() - 1);
-                Position p2 = new Position(position.getRow(), position.getColumn() - 2);
-                Position p3 = new Position(position.getRow(), position.getColumn() - 3);
-                if (!getBoard().thereIsAPiece(p1) && !getBoard().thereIsAPiece(p2) && !getBoard().thereIsAPiece(p3)) {
-                    mat[position.getRow()][position.getColumn() - 2] = true;
+            if (queenside != 0) {
+                long between = Bitboards.bit(sq - 1) | Bitboards.bit(sq - 2) | Bitboards.bit(sq - 3);
+                if ((occupied & between) == 0 && !board.isSquareAttacked(sq - 1, opponent)
+                        && !board.isSquareAttacked(sq - 2, opponent)) {
+                    mask |= Bitboards.bit(sq - 2);
                 }
             }
         }
-        return mat;
+        return mask;
     }
 
-    private boolean testRookCastling(Position p) {
-        ChessPiece piece = (ChessPiece) getBoard().piece(p);
-        return piece != null && piece instanceof Rook && piece.getColor() == getColor() && piece.getMoveCount() == 0;
+    @Override
+    public void generateMoves(ChessBoard board, int from, MoveList list) {
+        long opponents = board.getOccupancy() & ~board.getOccupancy(getColor());
+        long mask = possibleMovesMask(board, from);
+        while (mask != 0) {
+            int to = Long.numberOfTrailingZeros(mask);
+            int flags;
+            if (to == from + 2) {
+                flags = Move.KING_CASTLE;
+            } else if (to == from - 2) {
+                flags = Move.QUEEN_CASTLE;
+            } else {
+                flags = (opponents & Bitboards.bit(to)) != 0 ? Move.CAPTURE : Move.QUIET;
+            }
+            list.add(Move.encode(from, to, flags));
+            mask &= mask - 1;
+        }
     }
 }
-
@@ -1,14 +1,15 @@
 package chess.pieces;
 
-import boardgame.Position;
+import chess.Bitboards;
+import chess.ChessBoard;
 import chess.ChessPiece;
 import chess.Color;
-import boardgame.Board;
+import chess.PieceType;
 
 public class Knight extends ChessPiece {
 
-    public Knight(Board board, Color color) {
-        super(board, color);
+    public Knight(Color color) {
+        super(color);
     }
 
     @Override
@@ -16,30 +17,13 @@ public class Knight extends ChessPiece {
         return "N";
     }
 
-    private boolean canMove(int row, int column) {
-        ChessPiece p = (ChessPiece) getBoard().piece(new Position(row, column));
-        return p == null || p.getColor() != getColor();
+    @Override
+    public PieceType getType() {
+        return PieceType.KNIGHT;
     }
 
     @Override
-    public boolean[][] possibleMoves() {
-        boolean[][] mat = new boolean[getBoard().getRows()][getBoard().getColumns()];
-
-        Position p = new Position(0, 0);
-
-        // L-shaped moves
-        int[][] moves = {
-            {-2, -1}, {-2, 1}, {2, -1}, {2, 1},
-            {-1, -2}, {-1, 2}, {1, -2}, {1, 2}
-        };
-
-        for (int[] move : moves) {
-            p.setValues(position.getRow() + move[0], position.getColumn() + move[1]);
-            if (getBoard().positionExists(p) && canMove(p.getRow(), p.getColumn())) {
-                mat[p.getRow()][p.getColumn()] = true;
-            }
-        }
-
-        return mat;
+    public long possibleMovesMask(ChessBoard board, int square) {
+        return Bitboards.KNIGHT_ATTACKS[square] & targetsMask(board);
     }
-}
\ No newline at end of file
+}
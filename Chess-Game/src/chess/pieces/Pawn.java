@@ -1,94 +1,77 @@
 package chess.pieces;
 
-import boardgame.Board;
-import boardgame.Position;
-import chess.ChessMatch;
+import chess.Bitboards;
+import chess.ChessBoard;
 import chess.ChessPiece;
+import chess.Move;
+import chess.MoveList;
+import chess.PieceType;
 
 public class Pawn extends ChessPiece {
 
-    private ChessMatch chessMatch;
-
-
-    public Pawn(Board board, chess.Color color, ChessMatch chessMatch) {
-
-        super(board, color);
-        this.chessMatch = chessMatch;
+    public Pawn(chess.Color color) {
+        super(color);
     }
     @Override
     public String toString () {
         return "P";
     }
 
+    @Override
+    public PieceType getType() {
+        return PieceType.PAWN;
+    }
 
     @Override
-    public boolean[][] possibleMoves() {
-        boolean[][] mat = new boolean[getBoard().getRows()][getBoard().getColumns()];
-        Position p = new Position(0, 0);
+    public long possibleMovesMask(ChessBoard board, int sq) {
+        boolean white = getColor() == chess.Color.WHITE;
+        int forward = white ? -8 : 8;
+        long empty = ~board.getOccupancy();
+        long mask = 0L;
 
-        if (getColor() == chess.Color.WHITE) {
-            p.setValues(position.getRow() - 1, position.getColumn());
-            if (getBoard().positionExists(p) && !getBoard().thereIsAPiece(p)) {
-                mat[p.getRow()][p.getColumn()] = true;
-            }
-            p.setValues(position.getRow() - 2, position.getColumn());
-            Position p2 = new Position(position.getRow() - 1, position.getColumn());
-            if (getBoard().positionExists(p) && !getBoard().thereIsAPiece(p) && getBoard().positionExists(p2) && !getBoard().thereIsAPiece(p2) && getMoveCount() == 0) {
-                mat[p.getRow()][p.getColumn()] = true;
-            }
-            p.setValues(position.getRow() - 1, position.getColumn() - 1);
-            if (getBoard().positionExists(p) && isThereOpponentPiece(p)) {
-                mat[p.getRow()][p.getColumn()] = true;
-            }
-            p.setValues(position.getRow() - 1, position.getColumn() + 1);
-            if (getBoard().positionExists(p) && isThereOpponentPiece(p)) {
-                mat[p.getRow()][p.getColumn()] = true;
+        int one = sq + forward;
+        if (one >= 0 && one < 64 && (empty & Bitboards.bit(one)) != 0) {
+            mask |= Bitboards.bit(one);
+            int two = one + forward;
+            // A pawn still on its starting rank has never moved
+            if (Bitboards.row(sq) == (white ? 6 : 1) && two >= 0 && two < 64 && (empty & Bitboards.bit(two)) != 0) {
+                mask |= Bitboards.bit(two);
             }
+        }
+        long opponents = board.getOccupancy() & ~board.getOccupancy(getColor());
+        mask |= Bitboards.PAWN_ATTACKS[getColor().ordinal()][sq] & opponents;
 
-            // En Passant
-            if (position.getRow() == 3) {
-                Position left = new Position(position.getRow(), position.getColumn() - 1);
-                if (getBoard().positionExists(left) && isThereOpponentPiece(left) && getBoard().piece(left) == chessMatch.getEnPassantVulnerable()) {
-                    mat[left.getRow() - 1][left.getColumn()] = true;
-                }
-                Position right = new Position(position.getRow(), position.getColumn() + 1);
-                if (getBoard().positionExists(right) && isThereOpponentPiece(right) && getBoard().piece(right) == chessMatch.getEnPassantVulnerable()) {
-                    mat[right.getRow() - 1][right.getColumn()] = true;
-                }
-            }
+        // En Passant: the target square is on the sixth rank of the side allowed to take
+        int enPassant = board.getEnPassantSquare();
+        if (enPassant >= 0 && Bitboards.row(enPassant) == (white ? 2 : 5)) {
+            mask |= Bitboards.PAWN_ATTACKS[getColor().ordinal()][sq] & Bitboards.bit(enPassant);
+        }
+        return mask;
+    }
 
-        } else {
-            p.setValues(position.getRow() + 1, position.getColumn());
-            if (getBoard().positionExists(p) && !getBoard().thereIsAPiece(p)) {
-                mat[p.getRow()][p.getColumn()] = true;
-            }
-            p.setValues(position.getRow() + 2, position.getColumn());
-            Position p2 = new Position(position.getRow() + 1, position.getColumn());
-            if (getBoard().positionExists(p) && !getBoard().thereIsAPiece(p) && getBoard().positionExists(p2) && !getBoard().thereIsAPiece(p2) && getMoveCount() == 0) {
-                mat[p.getRow()][p.getColumn()] = true;
-            }
-            p.setValues(position.getRow() + 1, position.getColumn() - 1);
-            if (getBoard().positionExists(p) && isThereOpponentPiece(p)) {
-                mat[p.getRow()][p.getColumn()] = true;
+    @Override
+    public void generateMoves(ChessBoard board, int from, MoveList list) {
+        long opponents = board.getOccupancy() & ~board.getOccupancy(getColor());
+        long mask = possibleMovesMask(board, from);
+        while (mask != 0) {
+            int to = Long.numberOfTrailingZeros(mask);
+            int flags;
+            if (Bitboards.column(to) == Bitboards.column(from)) {
+                flags = (to == from + 16 || to == from - 16) ? Move.DOUBLE_PUSH : Move.QUIET;
+            } else {
+                flags = (opponents & Bitboards.bit(to)) != 0 ? Move.CAPTURE : Move.EN_PASSANT;
             }
-            p.setValues(position.getRow() + 1, position.getColumn() + 1);
-            if (getBoard().positionExists(p) && isThereOpponentPiece(p)) {
-                mat[p.getRow()][p.getColumn()] = true;
-
-                // En Passant
-                if (position.getRow() == 4) {
-                    Position left = new Position(position.getRow(), position.getColumn() - 1);
-                    if (getBoard().positionExists(left) && isThereOpponentPiece(left) && getBoard().piece(left) == chessMatch.getEnPassantVulnerable()) {
-                        mat[left.getRow() + 1][left.getColumn()] = true;
-                    }
-                    Position right = new Position(position.getRow(), position.getColumn() + 1);
-                    if (getBoard().positionExists(right) && isThereOpponentPiece(right) && getBoard().piece(right) == chessMatch.getEnPassantVulnerable()) {
-                        mat[right.getRow() + 1][right.getColumn()] = true;
-                    }
-                }
+            int row = Bitboards.row(to);
+            if (row == 0 || row == 7) {
+                flags |= Move.PROMOTION;
+                list.add(Move.encode(from, to, flags, PieceType.QUEEN));
+                list.add(Move.encode(from, to, flags, PieceType.ROOK));
+                list.add(Move.encode(from, to, flags, PieceType.BISHOP));
+                list.add(Move.encode(from, to, flags, PieceType.KNIGHT));
+            } else {
+                list.add(Move.encode(from, to, flags));
             }
-        }
-
-            return mat;
+            mask &= mask - 1;
         }
     }
+}
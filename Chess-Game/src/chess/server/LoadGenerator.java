@@ -0,0 +1,213 @@
+package chess.server;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drives a MatchServer with many concurrent random games and reports moves/sec and move latency.
+ * Each connection keeps its share of the matches alive, playing them round-robin; a finished game
+ * (or one that runs past MAX_PLIES) is closed and replaced by a fresh one, so the number of live
+ * matches stays constant. Latency is the round trip of the MOVE request alone.
+ *
+ * Usage: java chess.server.LoadGenerator [matches] [connections] [seconds] [port]
+ * Without a port an in-process server is started on an ephemeral port.
+ */
+public class LoadGenerator {
+
+    private static final int MAX_PLIES = 300;
+
+    private final String host = InetAddress.getLoopbackAddress().getHostAddress();
+    private final int port;
+
+    public LoadGenerator(int port) {
+        this.port = port;
+    }
+
+    public Report run(int matches, int connections, long millis) throws Exception {
+        ExecutorService clients = MatchServer.newThreadPerTaskExecutor();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis);
+        long start = System.nanoTime();
+        List<Future<Client>> futures = new ArrayList<>(connections);
+        for (int i = 0; i < connections; i++) {
+            int share = matches / connections + ((i < matches % connections) ? 1 : 0);
+            Client client = new Client(share, i, deadline);
+            futures.add(clients.submit(() -> {
+                client.play();
+                return client;
+            }));
+        }
+
+        Report report = new Report();
+        for (Future<Client> future : futures) {
+            report.add(future.get());
+        }
+        report.nanos = System.nanoTime() - start;
+        clients.shutdown();
+        return report;
+    }
+
+    private class Client {
+
+        private final long[] ids;
+        private final int[] plies;
+        private final SplittableRandom random;
+        private final long deadline;
+        private long[] latencies = new long[1 << 12];
+        private int moves;
+        private int games;
+        private int errors;
+
+        private PrintWriter out;
+        private BufferedReader in;
+
+        Client(int matches, int seed, long deadline) {
+            this.ids = new long[matches];
+            this.plies = new int[matches];
+            this.random = new SplittableRandom(seed);
+            this.deadline = deadline;
+        }
+
+        void play() throws IOException {
+            try (Socket socket = new Socket(host, port)) {
+                socket.setTcpNoDelay(true);
+                out = new PrintWriter(socket.getOutputStream(), true, StandardCharsets.US_ASCII);
+                in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+                for (int i = 0; i < ids.length; i++) {
+                    ids[i] = newMatch();
+                }
+                while (System.nanoTime() < deadline) {
+                    for (int i = 0; i < ids.length && System.nanoTime() < deadline; i++) {
+                        step(i);
+                    }
+                }
+                for (long id : ids) {
+                    request("CLOSE " + id);
+                }
+                out.println("QUIT");
+            }
+        }
+
+        private void step(int i) throws IOException {
+            String legal = request("MOVES " + ids[i]);
+            String[] moves = legal.length() > 3 ? legal.substring(3).split(" ") : new String[0];
+            if (moves.length == 0) {
+                replace(i);
+                return;
+            }
+            String move = moves[random.nextInt(moves.length)];
+            long t0 = System.nanoTime();
+            String reply = request("MOVE " + ids[i] + " " + move);
+            record(System.nanoTime() - t0);
+            if (!reply.startsWith("OK")) {
+                errors++;
+                replace(i);
+            } else if (reply.endsWith("CHECKMATE") || reply.endsWith("DRAW") || ++plies[i] >= MAX_PLIES) {
+                replace(i);
+            }
+        }
+
+        private void replace(int i) throws IOException {
+            request("CLOSE " + ids[i]);
+            ids[i] = newMatch();
+            plies[i] = 0;
+            games++;
+        }
+
+        private long newMatch() throws IOException {
+            return Long.parseLong(request("NEW").substring(3));
+        }
+
+        private String request(String line) throws IOException {
+            out.println(line);
+            String reply = in.readLine();
+            if (reply == null) {
+                throw new IOException("Server closed the connection");
+            }
+            return reply;
+        }
+
+        private void record(long nanos) {
+            if (moves == latencies.length) {
+                latencies = Arrays.copyOf(latencies, moves * 2);
+            }
+            latencies[moves++] = nanos;
+        }
+    }
+
+    public static class Report {
+
+        private long[] latencies = new long[0];
+        private int moves;
+        private int games;
+        private int errors;
+        private long nanos;
+
+        private void add(Client client) {
+            latencies = Arrays.copyOf(latencies, moves + client.moves);
+            System.arraycopy(client.latencies, 0, latencies, moves, client.moves);
+            moves += client.moves;
+            games += client.games;
+            errors += client.errors;
+        }
+
+        public double getMovesPerSecond() {
+            return moves * 1_000_000_000.0 / nanos;
+        }
+
+        // Latency in microseconds at the given fraction (0.99 for p99)
+        public double percentile(double fraction) {
+            if (moves == 0) {
+                return 0;
+            }
+            long[] sorted = Arrays.copyOf(latencies, moves);
+            Arrays.sort(sorted);
+            int index = (int) Math.min(moves - 1, Math.ceil(fraction * moves) - 1);
+            return sorted[Math.max(0, index)] / 1000.0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d moves in %.1f s: %.0f moves/s, %d games finished, %d errors%n"
+                            + "MOVE latency p50 %.0f us, p99 %.0f us, max %.0f us",
+                    moves, nanos / 1e9, getMovesPerSecond(), games, errors,
+                    percentile(0.50), percentile(0.99), percentile(1.0));
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        int matches = (args.length > 0) ? Integer.parseInt(args[0]) : 10_000;
+        int connections = (args.length > 1) ? Integer.parseInt(args[1]) : 100;
+        int seconds = (args.length > 2) ? Integer.parseInt(args[2]) : 30;
+
+        MatchServer server = null;
+        int port;
+        if (args.length > 3) {
+            port = Integer.parseInt(args[3]);
+        } else {
+            server = new MatchServer(0);
+            server.start();
+            port = server.getPort();
+        }
+
+        System.out.printf("%d concurrent matches over %d connections for %d s (%s)%n", matches, connections, seconds,
+                Runtime.version().feature() >= 21 ? "virtual threads" : "platform threads");
+        Report report = new LoadGenerator(port).run(matches, connections, seconds * 1000L);
+        System.out.println(report);
+
+        if (server != null) {
+            server.close();
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package chess.server;
+
+import chess.ChessMatch;
+
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+/**
+ * Owns one ChessMatch and runs every message against it one at a time.
+ * Messages wait in a mailbox and are drained by at most one executor task at a time,
+ * so the match and its Board are only ever touched by a single thread.
+ */
+public class MatchActor {
+
+    private final long id;
+    private final ChessMatch match = new ChessMatch();
+    private final Queue<Runnable> mailbox = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private final Executor executor;
+
+    public MatchActor(long id, Executor executor) {
+        this.id = id;
+        this.executor = executor;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public <T> CompletableFuture<T> ask(Function<ChessMatch, T> message) {
+        CompletableFuture<T> reply = new CompletableFuture<>();
+        mailbox.add(() -> {
+            try {
+                reply.complete(message.apply(match));
+            } catch (Throwable e) {
+                // Errors too: an incomplete reply would leave the asking session waiting forever
+                reply.completeExceptionally(e);
+            }
+        });
+        if (scheduled.compareAndSet(false, true)) {
+            executor.execute(this::drain);
+        }
+        return reply;
+    }
+
+    private void drain() {
+        Runnable message;
+        while ((message = mailbox.poll()) != null) {
+            message.run();
+        }
+        scheduled.set(false);
+        // A message may have arrived after the last poll but before the flag was cleared
+        if (!mailbox.isEmpty() && scheduled.compareAndSet(false, true)) {
+            executor.execute(this::drain);
+        }
+    }
+}
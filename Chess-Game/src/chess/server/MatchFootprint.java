@@ -0,0 +1,49 @@
+package chess.server;
+
+import chess.ChessMatch;
+import chess.MoveList;
+
+import java.util.SplittableRandom;
+
+/**
+ * Measures the heap a hosted match keeps alive: builds many matches, plays the same number of random
+ * plies in each and divides the growth of the used heap, taken after full collections, by the match count.
+ * The figure covers everything reachable from a ChessMatch (board, registry, history, move cache).
+ *
+ * Usage: java chess.server.MatchFootprint [matches] [plies]
+ */
+public class MatchFootprint {
+
+    public static void main(String[] args) {
+        int matches = (args.length > 0) ? Integer.parseInt(args[0]) : 100_000;
+        int plies = (args.length > 1) ? Integer.parseInt(args[1]) : 40;
+        SplittableRandom random = new SplittableRandom(1);
+        MoveList moves = new MoveList();
+
+        ChessMatch[] live = new ChessMatch[matches];
+        long before = usedHeap();
+        for (int i = 0; i < matches; i++) {
+            ChessMatch match = new ChessMatch();
+            for (int ply = 0; ply < plies; ply++) {
+                match.generateMoves(moves);
+                if (moves.isEmpty()) {
+                    break;
+                }
+                match.makeMove(moves.get(random.nextInt(moves.size())));
+            }
+            live[i] = match;
+        }
+        long after = usedHeap();
+
+        System.out.printf("%d matches after %d plies: %d bytes per match%n", live.length, plies,
+                (after - before) / matches);
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
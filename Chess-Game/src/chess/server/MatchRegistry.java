@@ -0,0 +1,36 @@
+package chess.server;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class MatchRegistry {
+
+    private final Map<Long, MatchActor> matches = new ConcurrentHashMap<>();
+    private final AtomicLong nextId = new AtomicLong(1);
+    private final Executor executor;
+
+    public MatchRegistry(Executor executor) {
+        this.executor = executor;
+    }
+
+    public MatchActor create() {
+        MatchActor actor = new MatchActor(nextId.getAndIncrement(), executor);
+        matches.put(actor.getId(), actor);
+        return actor;
+    }
+
+    // Returns null when there is no such match
+    public MatchActor get(long id) {
+        return matches.get(id);
+    }
+
+    public boolean remove(long id) {
+        return matches.remove(id) != null;
+    }
+
+    public int size() {
+        return matches.size();
+    }
+}
@@ -0,0 +1,88 @@
+package chess.server;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Hosts many matches behind a line-based protocol on a local socket (see MatchSession).
+ * Each connection gets its own session thread; matches run as actors on a shared work-stealing pool.
+ *
+ * Usage: java chess.server.MatchServer [port]
+ */
+public class MatchServer implements Closeable {
+
+    private final ServerSocket serverSocket;
+    private final ExecutorService sessions = newThreadPerTaskExecutor();
+    private final ForkJoinPool actors = new ForkJoinPool(Runtime.getRuntime().availableProcessors(),
+            ForkJoinPool.defaultForkJoinWorkerThreadFactory, null, true);
+    private final MatchRegistry registry = new MatchRegistry(actors);
+
+    public MatchServer(int port) throws IOException {
+        serverSocket = new ServerSocket(port, 1024, InetAddress.getLoopbackAddress());
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    public MatchRegistry getRegistry() {
+        return registry;
+    }
+
+    public void start() {
+        Thread acceptor = new Thread(this::acceptLoop, "match-server-acceptor");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    private void acceptLoop() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                sessions.execute(new MatchSession(socket, registry));
+            } catch (IOException e) {
+                if (!serverSocket.isClosed()) {
+                    System.err.println("Accept failed: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        sessions.shutdownNow();
+        actors.shutdownNow();
+    }
+
+    /**
+     * One virtual thread per task when the runtime has them (Java 21+), looked up reflectively
+     * because the project still compiles for Java 17; a cached platform thread pool otherwise.
+     */
+    static ExecutorService newThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool(r -> {
+                Thread t = new Thread(r);
+                t.setDaemon(true);
+                return t;
+            });
+        }
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int port = (args.length > 0) ? Integer.parseInt(args[0]) : 7777;
+        MatchServer server = new MatchServer(port);
+        server.start();
+        System.out.println("Match server listening on port " + server.getPort());
+        Thread.currentThread().join();
+    }
+}
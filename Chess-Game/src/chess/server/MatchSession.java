@@ -0,0 +1,198 @@
+package chess.server;
+
+import chess.Bitboards;
+import chess.ChessException;
+import chess.ChessMatch;
+import chess.ChessPiece;
+import chess.Move;
+import chess.MoveList;
+import chess.MoveStatus;
+import chess.PieceType;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletionException;
+
+/**
+ * One client connection speaking the line protocol:
+ * <pre>
+ * NEW                    -> OK id
+ * MOVE id e2e4[q]        -> OK NORMAL|CHECK|CHECKMATE|DRAW
+ * UNDO id                -> OK NORMAL|CHECK          (REDO id plays the move back)
+ * MOVES id               -> OK e2e4 g1f3 ...
+ * BOARD id               -> OK rnbqkbnr/pppppppp/--------/...  (white upper case, black lower case)
+ * STATE id               -> OK turn player NORMAL|CHECK|CHECKMATE|DRAW
+ * CLOSE id               -> OK
+ * QUIT
+ * </pre>
+ * Errors are answered with "ERR message". The session thread blocks on the actor's reply,
+ * which is cheap when sessions run on virtual threads.
+ */
+public class MatchSession implements Runnable {
+
+    private final Socket socket;
+    private final MatchRegistry registry;
+
+    public MatchSession(Socket socket, MatchRegistry registry) {
+        this.socket = socket;
+        this.registry = registry;
+    }
+
+    @Override
+    public void run() {
+        try (Socket s = socket;
+             BufferedReader in = new BufferedReader(new InputStreamReader(s.getInputStream(), StandardCharsets.US_ASCII));
+             PrintWriter out = new PrintWriter(s.getOutputStream(), true, StandardCharsets.US_ASCII)) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (line.equals("QUIT")) {
+                    break;
+                }
+                out.println(handle(line));
+            }
+        } catch (IOException e) {
+            // Client went away; nothing to answer
+        }
+    }
+
+    String handle(String line) {
+        String[] parts = line.trim().split(" ");
+        try {
+            switch (parts[0]) {
+                case "NEW":
+                    return "OK " + registry.create().getId();
+                case "MOVE":
+                    return actor(parts).ask(match -> move(match, argument(parts, 2))).join();
+                case "UNDO":
+                    return "OK " + actor(parts).ask(match -> {
+                        match.undo();
+                        return status(match);
+                    }).join();
+                case "REDO":
+                    return "OK " + actor(parts).ask(match -> {
+                        match.redo();
+                        return status(match);
+                    }).join();
+                case "MOVES":
+                    return "OK " + actor(parts).ask(MatchSession::legalMoves).join();
+                case "BOARD":
+                    return "OK " + actor(parts).ask(MatchSession::board).join();
+                case "STATE":
+                    return "OK " + actor(parts).ask(match -> match.getTurn() + " " + match.getCurrentPlayer() + " " + status(match)).join();
+                case "CLOSE":
+                    return registry.remove(id(parts)) ? "OK" : "ERR Unknown match";
+                default:
+                    return "ERR Unknown command";
+            }
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            return "ERR " + ((cause.getMessage() != null) ? cause.getMessage() : cause.toString());
+        } catch (ChessException | IllegalArgumentException e) {
+            return "ERR " + e.getMessage();
+        }
+    }
+
+    private MatchActor actor(String[] parts) {
+        MatchActor actor = registry.get(id(parts));
+        if (actor == null) {
+            throw new IllegalArgumentException("Unknown match");
+        }
+        return actor;
+    }
+
+    private static long id(String[] parts) {
+        return Long.parseLong(argument(parts, 1));
+    }
+
+    private static String argument(String[] parts, int index) {
+        if (parts.length <= index) {
+            throw new IllegalArgumentException("Missing argument");
+        }
+        return parts[index];
+    }
+
+    // Whole reply line; a rejected move costs no exception, since bad clients can send them at any rate
+    private static String move(ChessMatch match, String move) {
+        if (match.getCheckMate() || match.getDraw() != null) {
+            return "ERR The game is over.";
+        }
+        int from = (move.length() >= 4) ? square(move.charAt(0), move.charAt(1)) : -1;
+        int to = (move.length() >= 4) ? square(move.charAt(2), move.charAt(3)) : -1;
+        if (from < 0 || to < 0 || move.length() > 5) {
+            return "ERR Moves are written like e2e4 or e7e8q.";
+        }
+        PieceType promotion = (move.length() == 5) ? promotionType(move.charAt(4)) : null;
+        if (move.length() == 5 && promotion == null) {
+            return "ERR A pawn can only be promoted to q, r, b or n.";
+        }
+        int result = match.tryMove(from, to);
+        if (result != MoveStatus.OK) {
+            return "ERR " + MoveStatus.describe(result);
+        }
+        if (match.getPromoted() != null && promotion != null) {
+            match.replacePromotedPiece(promotion);
+        }
+        return "OK " + status(match);
+    }
+
+    // Piece named by a promotion letter, or null for any other letter
+    private static PieceType promotionType(char letter) {
+        switch (Character.toLowerCase(letter)) {
+            case 'q': return PieceType.QUEEN;
+            case 'r': return PieceType.ROOK;
+            case 'b': return PieceType.BISHOP;
+            case 'n': return PieceType.KNIGHT;
+            default: return null;
+        }
+    }
+
+    // Bitboards square of a coordinate like e2, or -1
+    private static int square(char column, char row) {
+        if (column < 'a' || column > 'h' || row < '1' || row > '8') {
+            return -1;
+        }
+        return Bitboards.square('8' - row, column - 'a');
+    }
+
+    private static String legalMoves(ChessMatch match) {
+        MoveList moves = new MoveList();
+        match.generateMoves(moves);
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < moves.size(); i++) {
+            if (i > 0) {
+                sb.append(' ');
+            }
+            sb.append(Move.toString(moves.get(i)));
+        }
+        return sb.toString();
+    }
+
+    private static String board(ChessMatch match) {
+        StringBuilder sb = new StringBuilder(71);
+        ChessPiece[][] pieces = match.getPieces();
+        for (int i = 0; i < pieces.length; i++) {
+            if (i > 0) {
+                sb.append('/');
+            }
+            for (ChessPiece p : pieces[i]) {
+                if (p == null) {
+                    sb.append('-');
+                } else {
+                    sb.append(p.getColor() == chess.Color.WHITE ? p.toString() : p.toString().toLowerCase());
+                }
+            }
+        }
+        return sb.toString();
+    }
+
+    private static String status(ChessMatch match) {
+        if (match.getCheckMate()) return "CHECKMATE";
+        if (match.getDraw() != null) return "DRAW";
+        if (match.getCheck()) return "CHECK";
+        return "NORMAL";
+    }
+}
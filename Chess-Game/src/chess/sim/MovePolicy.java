@@ -0,0 +1,77 @@
+package chess.sim;
+
+import chess.ChessMatch;
+import chess.Move;
+import chess.MoveList;
+import chess.engine.Search;
+import chess.engine.TranspositionTable;
+
+import java.util.SplittableRandom;
+
+/**
+ * Picks the move to play in a self-play game.
+ * Policies are shared by every worker of a SelfPlay run, so they must not keep per-game state in fields.
+ */
+@FunctionalInterface
+public interface MovePolicy {
+
+    /**
+     * @param match      position to move from, which must be left unchanged
+     * @param legalMoves every legal move of the side to move, never empty
+     * @param random     the game's own random source
+     */
+    int chooseMove(ChessMatch match, MoveList legalMoves, SplittableRandom random);
+
+    // Called by each worker before it starts a game; a policy that learns during a game forgets it here
+    default void newGame() {
+    }
+
+    // Uniformly random legal move
+    static MovePolicy random() {
+        return (match, legalMoves, random) -> legalMoves.get(random.nextInt(legalMoves.size()));
+    }
+
+    // Random capture when there is one, random move otherwise
+    static MovePolicy capturesFirst() {
+        return (match, legalMoves, random) -> {
+            int captures = 0;
+            for (int i = 0; i < legalMoves.size(); i++) {
+                if (Move.isCapture(legalMoves.get(i))) {
+                    captures++;
+                }
+            }
+            if (captures == 0) {
+                return legalMoves.get(random.nextInt(legalMoves.size()));
+            }
+            int pick = random.nextInt(captures);
+            for (int i = 0; i < legalMoves.size(); i++) {
+                if (Move.isCapture(legalMoves.get(i)) && pick-- == 0) {
+                    return legalMoves.get(i);
+                }
+            }
+            throw new IllegalStateException();
+        };
+    }
+
+    /**
+     * Alpha-beta search limited to a node budget; each worker thread gets its own Search and table.
+     * The table is cleared before every game, so a game's moves do not depend on which games the thread
+     * played before it.
+     */
+    static MovePolicy search(long nodesPerMove) {
+        ThreadLocal<TranspositionTable> tables = ThreadLocal.withInitial(() -> new TranspositionTable(1));
+        ThreadLocal<Search> searches = ThreadLocal.withInitial(() -> new Search(tables.get()));
+        return new MovePolicy() {
+            @Override
+            public int chooseMove(ChessMatch match, MoveList legalMoves, SplittableRandom random) {
+                int move = searches.get().search(match, Search.INFINITE_TIME, nodesPerMove, Search.MAX_DEPTH).getBestMove();
+                return (move != Move.NONE) ? move : legalMoves.get(0);
+            }
+
+            @Override
+            public void newGame() {
+                tables.get().clear();
+            }
+        };
+    }
+}
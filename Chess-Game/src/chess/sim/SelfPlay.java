@@ -0,0 +1,243 @@
+package chess.sim;
+
+import chess.ChessMatch;
+import chess.ChessPiece;
+import chess.Color;
+import chess.Move;
+import chess.MoveList;
+import chess.PieceType;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Plays complete games with no terminal I/O and collects their results.
+ * Game ranges are split across a ForkJoinPool; each worker thread keeps one ChessMatch and takes it back
+ * to the initial position with undoMove between games. Every game draws from its own random stream,
+ * derived from the run seed and the game number, so the totals do not depend on the thread count.
+ *
+ * Usage: java chess.sim.SelfPlay games [threads] [random|captures|search] [seed]
+ */
+public class SelfPlay {
+
+    // Games are cut off after this many plies; the fifty-move rule would end most of them much earlier
+    public static final int DEFAULT_MAX_PLIES = 500;
+    private static final int BATCH = 256;
+
+    private final MovePolicy white;
+    private final MovePolicy black;
+    private final int threads;
+    private final int maxPlies;
+    private final ThreadLocal<Worker> workers = ThreadLocal.withInitial(Worker::new);
+
+    public SelfPlay(MovePolicy white, MovePolicy black, int threads, int maxPlies) {
+        this.white = white;
+        this.black = black;
+        this.threads = threads;
+        this.maxPlies = maxPlies;
+    }
+
+    public Statistics run(long games, long seed) {
+        long start = System.nanoTime();
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        Statistics statistics;
+        try {
+            statistics = pool.invoke(new GamesTask(0, games, seed));
+        } finally {
+            pool.shutdown();
+        }
+        statistics.nanos = System.nanoTime() - start;
+        return statistics;
+    }
+
+    @SuppressWarnings("serial")
+    private class GamesTask extends RecursiveTask<Statistics> {
+        private final long from;
+        private final long to;
+        private final long seed;
+
+        GamesTask(long from, long to, long seed) {
+            this.from = from;
+            this.to = to;
+            this.seed = seed;
+        }
+
+        @Override
+        protected Statistics compute() {
+            if (to - from <= BATCH) {
+                Worker worker = workers.get();
+                Statistics statistics = new Statistics();
+                for (long game = from; game < to; game++) {
+                    worker.play(new SplittableRandom(seed ^ (game * 0x9E3779B97F4A7C15L)), statistics);
+                }
+                return statistics;
+            }
+            long mid = (from + to) >>> 1;
+            GamesTask left = new GamesTask(from, mid, seed);
+            left.fork();
+            Statistics statistics = new GamesTask(mid, to, seed).compute();
+            statistics.add(left.join());
+            return statistics;
+        }
+    }
+
+    private class Worker {
+        private final ChessMatch match = new ChessMatch();
+        private final MoveList moves = new MoveList();
+
+        void play(SplittableRandom random, Statistics statistics) {
+            white.newGame();
+            black.newGame();
+            int plies = 0;
+            while (true) {
+                match.generateMoves(moves);
+                if (moves.isEmpty()) {
+                    if (!match.getCheck()) {
+                        statistics.stalemates++;
+                    } else if (match.getCurrentPlayer() == Color.WHITE) {
+                        statistics.blackWins++;
+                    } else {
+                        statistics.whiteWins++;
+                    }
+                    break;
+                }
+                if (match.testDraw() != null) {
+                    statistics.draws++;
+                    break;
+                }
+                if (plies == maxPlies) {
+                    statistics.unfinished++;
+                    break;
+                }
+                MovePolicy policy = (match.getCurrentPlayer() == Color.WHITE) ? white : black;
+                int move = policy.chooseMove(match, moves, random);
+                ChessPiece captured = match.makeMove(move);
+                if (captured != null) {
+                    statistics.captures[captured.getType().index(captured.getColor())]++;
+                }
+                if (Move.isPromotion(move)) {
+                    statistics.promotions++;
+                }
+                plies++;
+            }
+            statistics.games++;
+            statistics.plies += plies;
+            for (int i = 0; i < plies; i++) {
+                match.undoMove();
+            }
+        }
+    }
+
+    public static class Statistics {
+        private long games;
+        private long whiteWins;
+        private long blackWins;
+        private long stalemates;
+        // Repetition, fifty-move rule or insufficient material
+        private long draws;
+        private long unfinished;
+        private long plies;
+        private long promotions;
+        // Indexed by PieceType.index(color) of the captured piece
+        private final long[] captures = new long[12];
+        private long nanos;
+
+        private void add(Statistics other) {
+            games += other.games;
+            whiteWins += other.whiteWins;
+            blackWins += other.blackWins;
+            stalemates += other.stalemates;
+            draws += other.draws;
+            unfinished += other.unfinished;
+            plies += other.plies;
+            promotions += other.promotions;
+            for (int i = 0; i < captures.length; i++) {
+                captures[i] += other.captures[i];
+            }
+        }
+
+        public long getGames() {
+            return games;
+        }
+
+        public long getCheckmates() {
+            return whiteWins + blackWins;
+        }
+
+        public long getWhiteWins() {
+            return whiteWins;
+        }
+
+        public long getBlackWins() {
+            return blackWins;
+        }
+
+        public long getStalemates() {
+            return stalemates;
+        }
+
+        public long getDraws() {
+            return draws;
+        }
+
+        public long getUnfinished() {
+            return unfinished;
+        }
+
+        public long getPromotions() {
+            return promotions;
+        }
+
+        public long getCaptures(Color color, PieceType type) {
+            return captures[type.index(color)];
+        }
+
+        public double getAverageLength() {
+            return (games == 0) ? 0 : (double) plies / games;
+        }
+
+        public double getGamesPerSecond() {
+            return games * 1_000_000_000.0 / nanos;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            sb.append(String.format("Games: %d (%.0f games/s, %.1f plies on average)%n", games, getGamesPerSecond(), getAverageLength()));
+            sb.append(String.format("Checkmates: %d (white %d, black %d)  Stalemates: %d  Draws: %d  Unfinished: %d  Promotions: %d%n",
+                    getCheckmates(), whiteWins, blackWins, stalemates, draws, unfinished, promotions));
+            sb.append("Captured:");
+            for (Color color : Color.values()) {
+                sb.append(String.format("%n  %-5s", color));
+                for (PieceType type : PieceType.values()) {
+                    sb.append(String.format(" %s %d", type, getCaptures(color, type)));
+                }
+            }
+            return sb.toString();
+        }
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 1) {
+            System.out.println("Usage: java chess.sim.SelfPlay games [threads] [random|captures|search] [seed]");
+            return;
+        }
+        long games = Long.parseLong(args[0]);
+        int threads = (args.length > 1) ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        String name = (args.length > 2) ? args[2] : "random";
+        long seed = (args.length > 3) ? Long.parseLong(args[3]) : 1L;
+
+        MovePolicy policy;
+        switch (name) {
+            case "random": policy = MovePolicy.random(); break;
+            case "captures": policy = MovePolicy.capturesFirst(); break;
+            case "search": policy = MovePolicy.search(2_000); break;
+            default:
+                System.out.println("Unknown policy: " + name);
+                return;
+        }
+        Statistics statistics = new SelfPlay(policy, policy, threads, DEFAULT_MAX_PLIES).run(games, seed);
+        System.out.println(statistics);
+    }
+}
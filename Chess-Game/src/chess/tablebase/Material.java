@@ -0,0 +1,66 @@
+package chess.tablebase;
+
+import chess.PieceType;
+
+/**
+ * Endings covered by the tablebases: a king and one or two pieces against a lone king.
+ * Positions are indexed with the stronger side as White, so a single table serves both colors:
+ * index = side * 64^n + (((strong king * 64 + weak king) * 64 + first piece) * 64 + second piece),
+ * where side is 0 when the stronger side is to move and 1 otherwise.
+ */
+public enum Material {
+    KQK(PieceType.QUEEN),
+    KRK(PieceType.ROOK),
+    KPK(PieceType.PAWN),
+    KBNK(PieceType.BISHOP, PieceType.KNIGHT);
+
+    private final PieceType[] pieces;
+
+    Material(PieceType... pieces) {
+        this.pieces = pieces;
+    }
+
+    // Pieces besides the two kings, in index order
+    public int extraPieces() {
+        return pieces.length;
+    }
+
+    public PieceType extraPiece(int i) {
+        return pieces[i];
+    }
+
+    // Placements of all pieces, which is half the table: one half per side to move
+    public int placements() {
+        return 1 << (6 * (2 + pieces.length));
+    }
+
+    public int size() {
+        return 2 * placements();
+    }
+
+    public String fileName() {
+        return name() + ".tb";
+    }
+
+    /**
+     * @param squares strong king, weak king, then the extra pieces, all seen from White's side
+     */
+    public int index(boolean strongToMove, int[] squares) {
+        int index = 0;
+        for (int i = 0; i < 2 + pieces.length; i++) {
+            index = (index << 6) | squares[i];
+        }
+        return strongToMove ? index : index + placements();
+    }
+
+    // Inverse of index: fills squares and returns whether the stronger side is to move
+    public boolean decode(int index, int[] squares) {
+        boolean strongToMove = index < placements();
+        int placement = strongToMove ? index : index - placements();
+        for (int i = 1 + pieces.length; i >= 0; i--) {
+            squares[i] = placement & 63;
+            placement >>>= 6;
+        }
+        return strongToMove;
+    }
+}
@@ -0,0 +1,109 @@
+package chess.tablebase;
+
+import chess.ChessException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * One material's distance-to-mate values, bit-packed with just enough bits per position for the longest mate.
+ * A value of 0 means a draw (or an unreachable position); otherwise it is the number of plies to mate plus one,
+ * odd ply counts being wins for the side to move and even ones losses.
+ * The file holds a 16-byte header (magic, material, bits per entry, largest value) and then the packed longs.
+ */
+final class Table {
+
+    static final int MAGIC = 0x43544231; // "CTB1"
+    static final int HEADER_BYTES = 16;
+
+    private final Material material;
+    private final ByteBuffer data;
+    private final int bits;
+    private final long mask;
+    private final int maxValue;
+
+    private Table(Material material, ByteBuffer data) {
+        this.material = material;
+        this.data = data;
+        this.bits = data.getInt(8);
+        this.mask = (1L << bits) - 1;
+        this.maxValue = data.getInt(12);
+    }
+
+    // Packs generated values; each must be between 0 and 255
+    static Table pack(Material material, byte[] values) {
+        int max = 0;
+        for (byte v : values) {
+            max = Math.max(max, v & 0xFF);
+        }
+        int bits = Math.max(1, 32 - Integer.numberOfLeadingZeros(max));
+        // One spare word so get() can always read the next word
+        long words = ((long) values.length * bits + 63) / 64 + 1;
+        ByteBuffer data = ByteBuffer.allocate(HEADER_BYTES + (int) words * 8);
+        data.putInt(0, MAGIC).putInt(4, material.ordinal()).putInt(8, bits).putInt(12, max);
+        long word = 0;
+        long bitPosition = 0;
+        for (byte v : values) {
+            int shift = (int) (bitPosition & 63);
+            word |= (long) (v & 0xFF) << shift;
+            if (shift + bits >= 64) {
+                data.putLong(HEADER_BYTES + (int) (bitPosition >>> 6) * 8, word);
+                word = (shift + bits == 64) ? 0 : (long) (v & 0xFF) >>> (64 - shift);
+            }
+            bitPosition += bits;
+        }
+        data.putLong(HEADER_BYTES + (int) (bitPosition >>> 6) * 8, word);
+        return new Table(material, data);
+    }
+
+    static Table open(Path file, Material material) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (data.limit() < HEADER_BYTES || data.getInt(0) != MAGIC || data.getInt(4) != material.ordinal()) {
+                throw new ChessException("Not a " + material + " tablebase: " + file);
+            }
+            return new Table(material, data);
+        }
+    }
+
+    void write(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer out = data.duplicate();
+            out.clear();
+            while (out.hasRemaining()) {
+                channel.write(out);
+            }
+        }
+    }
+
+    Material getMaterial() {
+        return material;
+    }
+
+    int getBits() {
+        return bits;
+    }
+
+    int getMaxValue() {
+        return maxValue;
+    }
+
+    long getBytes() {
+        return data.capacity();
+    }
+
+    int get(int index) {
+        long bitPosition = (long) index * bits;
+        int offset = HEADER_BYTES + (int) (bitPosition >>> 6) * 8;
+        int shift = (int) (bitPosition & 63);
+        long value = data.getLong(offset) >>> shift;
+        if (shift + bits > 64) {
+            value |= data.getLong(offset + 8) << (64 - shift);
+        }
+        return (int) (value & mask);
+    }
+}
@@ -0,0 +1,566 @@
+package chess.tablebase;
+
+import chess.Bitboards;
+import chess.ChessBoard;
+import chess.ChessPiece;
+import chess.Color;
+import chess.Move;
+import chess.MoveGenerator;
+import chess.MoveList;
+import chess.PieceType;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Builds distance-to-mate tables by retrograde analysis.
+ * A first parallel pass sets up every placement on a ChessBoard and counts the lone king's legal moves with
+ * MoveGenerator, marking checkmates and illegal placements. The second pass works outwards from the mates
+ * one ply at a time: a lost position makes every position that can move into it a win, and a won position
+ * takes one escape away from each position that can move into it, which is lost once it has none left.
+ * Both passes split their work across a ForkJoinPool and resolve positions with atomic byte updates.
+ * KPK looks up its promotions in the KQK and KRK tables, so those are always built first.
+ *
+ * Usage: java chess.tablebase.TablebaseGenerator directory [threads] [KQK KRK KPK KBNK]
+ */
+public class TablebaseGenerator {
+
+    private static final byte ILLEGAL = (byte) 0xFF;
+    private static final int BATCH = 4096;
+    private static final VarHandle BYTES = MethodHandles.arrayElementVarHandle(byte[].class);
+
+    private final int threads;
+    private final Map<Material, Table> tables = new EnumMap<>(Material.class);
+
+    public TablebaseGenerator(int threads) {
+        this.threads = threads;
+    }
+
+    /**
+     * Generates the table and writes it to the directory as material.fileName().
+     * KPK needs KQK and KRK: they are taken from this generator, then from the directory, and built if missing.
+     */
+    public Report generate(Material material, Path directory) throws IOException {
+        long start = System.nanoTime();
+        Files.createDirectories(directory);
+        Table[] promotions = null;
+        if (material == Material.KPK) {
+            promotions = new Table[]{table(Material.KQK, directory), table(Material.KRK, directory)};
+        }
+        Run run = new Run(material, promotions);
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            run.solve(pool);
+        } finally {
+            pool.shutdown();
+        }
+        Report report = run.finish();
+        Table table = Table.pack(material, run.values);
+        table.write(directory.resolve(material.fileName()));
+        tables.put(material, table);
+        report.bytes = table.getBytes();
+        report.bits = table.getBits();
+        report.nanos = System.nanoTime() - start;
+        return report;
+    }
+
+    private Table table(Material material, Path directory) throws IOException {
+        Table table = tables.get(material);
+        if (table == null) {
+            Path file = directory.resolve(material.fileName());
+            if (Files.exists(file)) {
+                table = Table.open(file, material);
+                tables.put(material, table);
+            } else {
+                generate(material, directory);
+                table = tables.get(material);
+            }
+        }
+        return table;
+    }
+
+    // State of one table under construction
+    private static final class Run {
+        private final Material material;
+        private final int placements;
+        private final Table[] promotions;
+        // Plies to mate plus one, 0 while unresolved, ILLEGAL for placements that cannot occur
+        private final byte[] values;
+        // Weak side to move: moves that still lead to an unresolved position, plus one for any capture or stalemate
+        private final byte[] escapes;
+        // KPK only: plies to mate through the best promotion, by placement with the strong side to move
+        private final byte[] promotionWins;
+        private final ThreadLocal<Worker> workers;
+
+        Run(Material material, Table[] promotions) {
+            this.material = material;
+            this.placements = material.placements();
+            this.promotions = promotions;
+            this.values = new byte[material.size()];
+            this.escapes = new byte[placements];
+            this.promotionWins = (promotions != null) ? new byte[placements] : null;
+            this.workers = ThreadLocal.withInitial(() -> new Worker(material));
+        }
+
+        void solve(ForkJoinPool pool) {
+            int[] frontier = pool.invoke(new InitialTask(this, 0, placements)).toArray();
+            int[][] promotionLevels = promotionLevels();
+            for (int level = 1; frontier.length > 0 || level < promotionLevels.length; level++) {
+                if (level < promotionLevels.length && promotionLevels[level] != null) {
+                    frontier = addPromotionWins(frontier, promotionLevels[level], level);
+                }
+                if (level == 0xFE) {
+                    throw new IllegalStateException("Distance to mate does not fit a byte");
+                }
+                frontier = (frontier.length == 0) ? frontier : pool.invoke(new ExpandTask(this, frontier, 0, frontier.length, level)).toArray();
+            }
+        }
+
+        // Strong-to-move placements grouped by the value their best promotion gives them
+        private int[][] promotionLevels() {
+            if (promotionWins == null) {
+                return new int[0][];
+            }
+            int[] counts = new int[256];
+            for (byte v : promotionWins) {
+                counts[v & 0xFF]++;
+            }
+            int[][] levels = new int[256][];
+            for (int level = 1; level < 256; level++) {
+                if (counts[level] > 0) {
+                    levels[level] = new int[counts[level]];
+                }
+            }
+            Arrays.fill(counts, 0);
+            for (int placement = 0; placement < placements; placement++) {
+                int level = promotionWins[placement] & 0xFF;
+                if (level > 0) {
+                    levels[level][counts[level]++] = placement;
+                }
+            }
+            int length = 0;
+            for (int level = 0; level < 256; level++) {
+                if (levels[level] != null) {
+                    length = level + 1;
+                }
+            }
+            return Arrays.copyOf(levels, length);
+        }
+
+        private int[] addPromotionWins(int[] frontier, int[] wins, int level) {
+            IntList merged = new IntList();
+            for (int index : frontier) {
+                merged.add(index);
+            }
+            for (int index : wins) {
+                if (values[index] == 0) {
+                    values[index] = (byte) level;
+                    merged.add(index);
+                }
+            }
+            return merged.toArray();
+        }
+
+        // First pass over one placement, both sides to move
+        void classify(Worker worker, int placement, IntList mates) {
+            int[] squares = worker.squares;
+            material.decode(placement, squares);
+            int weakToMove = placement + placements;
+            if (!isValid(squares)) {
+                values[placement] = ILLEGAL;
+                values[weakToMove] = ILLEGAL;
+                return;
+            }
+            worker.setUp(squares);
+            ChessBoard board = worker.board;
+            if (board.isSquareAttacked(squares[1], Color.WHITE)) {
+                values[placement] = ILLEGAL;
+            } else if (promotionWins != null) {
+                promotionWins[placement] = (byte) bestPromotion(squares, worker.child);
+            }
+
+            worker.generator.generateLegalMoves(Color.BLACK, -1, 0, worker.moves);
+            MoveList moves = worker.moves;
+            if (moves.isEmpty()) {
+                if (worker.generator.checkers(Color.BLACK) != 0) {
+                    values[weakToMove] = 1;
+                    mates.add(weakToMove);
+                } else {
+                    escapes[placement] = 1; // Stalemate: never lost
+                }
+                return;
+            }
+            int count = 0;
+            boolean capture = false;
+            for (int i = 0; i < moves.size(); i++) {
+                if (board.piece(Move.to(moves.get(i))) != null) {
+                    capture = true;
+                } else {
+                    count++;
+                }
+            }
+            escapes[placement] = (byte) (count + (capture ? 1 : 0));
+        }
+
+        // Quickest win by promoting the pawn to a queen or rook, 0 when neither wins
+        private int bestPromotion(int[] squares, int[] child) {
+            int pawn = squares[2];
+            int target = pawn - 8;
+            if (Bitboards.row(pawn) != 1 || target == squares[0] || target == squares[1]) {
+                return 0;
+            }
+            child[0] = squares[0];
+            child[1] = squares[1];
+            child[2] = target;
+            int best = 0;
+            for (Table table : promotions) {
+                int v = table.get(table.getMaterial().index(false, child));
+                // v - 1 plies after the promotion, which is one more ply, so the stored value is v + 1
+                if (v > 0 && (best == 0 || v + 1 < best)) {
+                    best = v + 1;
+                }
+            }
+            return best;
+        }
+
+        private boolean isValid(int[] squares) {
+            for (int i = 0; i < squares.length; i++) {
+                for (int j = i + 1; j < squares.length; j++) {
+                    if (squares[i] == squares[j]) {
+                        return false;
+                    }
+                }
+            }
+            if ((Bitboards.KING_ATTACKS[squares[0]] & Bitboards.bit(squares[1])) != 0) {
+                return false;
+            }
+            for (int i = 0; i < material.extraPieces(); i++) {
+                int row = Bitboards.row(squares[2 + i]);
+                if (material.extraPiece(i) == PieceType.PAWN && (row == 0 || row == 7)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Resolves the positions that can move into one resolved at the given level.
+         * A loss (weak side to move) makes each strong-side predecessor a win; a win removes an escape from
+         * each weak-side predecessor. Illegal predecessors are skipped because their value is not 0.
+         */
+        void expand(int index, int level, int[] squares, IntList next) {
+            boolean strongToMove = material.decode(index, squares);
+            long occupied = 0;
+            for (int square : squares) {
+                occupied |= Bitboards.bit(square);
+            }
+            byte resolved = (byte) (level + 1);
+            if (!strongToMove) {
+                for (int piece = 0; piece < squares.length; piece++) {
+                    if (piece == 1) {
+                        continue;
+                    }
+                    int from = squares[piece];
+                    long origins = unmoves(piece, from, occupied);
+                    while (origins != 0) {
+                        squares[piece] = Long.numberOfTrailingZeros(origins);
+                        int predecessor = material.index(true, squares);
+                        if (BYTES.compareAndSet(values, predecessor, (byte) 0, resolved)) {
+                            next.add(predecessor);
+                        }
+                        origins &= origins - 1;
+                    }
+                    squares[piece] = from;
+                }
+            } else {
+                int from = squares[1];
+                long origins = Bitboards.KING_ATTACKS[from] & ~occupied;
+                while (origins != 0) {
+                    squares[1] = Long.numberOfTrailingZeros(origins);
+                    int predecessor = material.index(false, squares);
+                    if (values[predecessor] == 0 && removeEscape(predecessor - placements) == 0
+                            && BYTES.compareAndSet(values, predecessor, (byte) 0, resolved)) {
+                        next.add(predecessor);
+                    }
+                    origins &= origins - 1;
+                }
+                squares[1] = from;
+            }
+        }
+
+        // Escapes left afterwards
+        private int removeEscape(int placement) {
+            byte left;
+            do {
+                left = (byte) BYTES.getVolatile(escapes, placement);
+            } while (!BYTES.compareAndSet(escapes, placement, left, (byte) (left - 1)));
+            return left - 1;
+        }
+
+        // Squares a strong piece could have come from to reach its square without capturing
+        private long unmoves(int piece, int square, long occupied) {
+            PieceType type = (piece == 0) ? PieceType.KING : material.extraPiece(piece - 2);
+            switch (type) {
+                case KING:
+                    return Bitboards.KING_ATTACKS[square] & ~occupied;
+                case QUEEN:
+                    return Bitboards.queenAttacks(square, occupied) & ~occupied;
+                case ROOK:
+                    return Bitboards.rookAttacks(square, occupied) & ~occupied;
+                case BISHOP:
+                    return Bitboards.bishopAttacks(square, occupied) & ~occupied;
+                case KNIGHT:
+                    return Bitboards.KNIGHT_ATTACKS[square] & ~occupied;
+                default:
+                    // White pawns move to lower squares: one step back, or two from the fourth rank
+                    long origins = 0;
+                    int one = square + 8;
+                    if (one < 56 && (occupied & Bitboards.bit(one)) == 0) {
+                        origins |= Bitboards.bit(one);
+                        if (Bitboards.row(square) == 4 && (occupied & Bitboards.bit(square + 16)) == 0) {
+                            origins |= Bitboards.bit(square + 16);
+                        }
+                    }
+                    return origins;
+            }
+        }
+
+        // Counts the results and turns the illegal markers into 0 so the table can be packed
+        Report finish() {
+            Report report = new Report(material);
+            for (int i = 0; i < values.length; i++) {
+                int v = values[i] & 0xFF;
+                boolean strongToMove = i < placements;
+                if (values[i] == ILLEGAL) {
+                    values[i] = 0;
+                } else if (v == 0) {
+                    if (strongToMove) {
+                        report.draws++;
+                    }
+                } else if (strongToMove) {
+                    report.wins++;
+                    report.longestWin = Math.max(report.longestWin, v - 1);
+                } else {
+                    report.losses++;
+                    report.longestLoss = Math.max(report.longestLoss, v - 1);
+                }
+            }
+            return report;
+        }
+    }
+
+    @SuppressWarnings("serial")
+    private static final class InitialTask extends RecursiveTask<IntList> {
+        private final Run run;
+        private final int from;
+        private final int to;
+
+        InitialTask(Run run, int from, int to) {
+            this.run = run;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected IntList compute() {
+            if (to - from <= BATCH) {
+                Worker worker = run.workers.get();
+                IntList mates = new IntList();
+                for (int placement = from; placement < to; placement++) {
+                    run.classify(worker, placement, mates);
+                }
+                return mates;
+            }
+            int mid = (from + to) >>> 1;
+            InitialTask left = new InitialTask(run, from, mid);
+            left.fork();
+            IntList mates = new InitialTask(run, mid, to).compute();
+            mates.addAll(left.join());
+            return mates;
+        }
+    }
+
+    @SuppressWarnings("serial")
+    private static final class ExpandTask extends RecursiveTask<IntList> {
+        private final Run run;
+        private final int[] frontier;
+        private final int from;
+        private final int to;
+        private final int level;
+
+        ExpandTask(Run run, int[] frontier, int from, int to, int level) {
+            this.run = run;
+            this.frontier = frontier;
+            this.from = from;
+            this.to = to;
+            this.level = level;
+        }
+
+        @Override
+        protected IntList compute() {
+            if (to - from <= BATCH / 4) {
+                int[] squares = run.workers.get().squares;
+                IntList next = new IntList();
+                for (int i = from; i < to; i++) {
+                    run.expand(frontier[i], level, squares, next);
+                }
+                return next;
+            }
+            int mid = (from + to) >>> 1;
+            ExpandTask left = new ExpandTask(run, frontier, from, mid, level);
+            left.fork();
+            IntList next = new ExpandTask(run, frontier, mid, to, level).compute();
+            next.addAll(left.join());
+            return next;
+        }
+    }
+
+    // Per-thread board holding the table's pieces, moved square by square between placements
+    private static final class Worker {
+        private final ChessBoard board = new ChessBoard();
+        private final MoveGenerator generator = new MoveGenerator(board);
+        private final MoveList moves = new MoveList();
+        private final ChessPiece[] pieces;
+        private final int[] placed;
+        private final int[] squares;
+        private final int[] child = new int[3];
+
+        Worker(Material material) {
+            int count = 2 + material.extraPieces();
+            pieces = new ChessPiece[count];
+            pieces[0] = ChessPiece.of(Color.WHITE, PieceType.KING);
+            pieces[1] = ChessPiece.of(Color.BLACK, PieceType.KING);
+            for (int i = 0; i < material.extraPieces(); i++) {
+                pieces[2 + i] = ChessPiece.of(Color.WHITE, material.extraPiece(i));
+            }
+            placed = new int[count];
+            Arrays.fill(placed, -1);
+            squares = new int[count];
+        }
+
+        // Lifts the pieces whose square changed first, so a piece never lands on one still standing there
+        void setUp(int[] target) {
+            for (int i = 0; i < pieces.length; i++) {
+                if (placed[i] != target[i] && placed[i] >= 0) {
+                    board.removePiece(placed[i]);
+                    placed[i] = -1;
+                }
+            }
+            for (int i = 0; i < pieces.length; i++) {
+                if (placed[i] < 0) {
+                    board.placePiece(pieces[i], target[i]);
+                    placed[i] = target[i];
+                }
+            }
+        }
+    }
+
+    // Growable int array for frontiers
+    private static final class IntList {
+        private int[] items = new int[64];
+        private int size;
+
+        void add(int value) {
+            if (size == items.length) {
+                items = Arrays.copyOf(items, size * 2);
+            }
+            items[size++] = value;
+        }
+
+        void addAll(IntList other) {
+            if (size + other.size > items.length) {
+                items = Arrays.copyOf(items, Math.max(size + other.size, items.length * 2));
+            }
+            System.arraycopy(other.items, 0, items, size, other.size);
+            size += other.size;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(items, size);
+        }
+    }
+
+    public static class Report {
+        private final Material material;
+        private long wins;
+        private long draws;
+        private long losses;
+        private int longestWin;
+        private int longestLoss;
+        private long bytes;
+        private int bits;
+        private long nanos;
+
+        private Report(Material material) {
+            this.material = material;
+        }
+
+        public Material getMaterial() {
+            return material;
+        }
+
+        // Legal positions with the stronger side to move that it wins
+        public long getWins() {
+            return wins;
+        }
+
+        public long getDraws() {
+            return draws;
+        }
+
+        // Positions with the lone king to move that it loses
+        public long getLosses() {
+            return losses;
+        }
+
+        // Longest forced mate, in plies, with the stronger side to move
+        public int getLongestWin() {
+            return longestWin;
+        }
+
+        public long getBytes() {
+            return bytes;
+        }
+
+        public long getNanos() {
+            return nanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s: %d wins, %d draws, %d losses; longest mate %d plies (%d moves) with the stronger side"
+                            + " to move, %d plies with the lone king to move; %d bits per position, %d KB in %d ms",
+                    material, wins, draws, losses, longestWin, (longestWin + 1) / 2, longestLoss, bits, bytes / 1024,
+                    nanos / 1_000_000);
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("Usage: java chess.tablebase.TablebaseGenerator directory [threads] [KQK KRK KPK KBNK]");
+            return;
+        }
+        Path directory = Paths.get(args[0]);
+        int threads = (args.length > 1) ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        Material[] materials = Material.values();
+        if (args.length > 2) {
+            materials = new Material[args.length - 2];
+            for (int i = 2; i < args.length; i++) {
+                materials[i - 2] = Material.valueOf(args[i].toUpperCase());
+            }
+        }
+        TablebaseGenerator generator = new TablebaseGenerator(threads);
+        for (Material material : materials) {
+            System.out.println(generator.generate(material, directory));
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package chess.tablebase;
+
+import chess.ChessMatch;
+import chess.Color;
+import chess.Move;
+import chess.MoveList;
+import chess.PieceType;
+import chess.engine.Search;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Answers endings with at most four pieces from memory-mapped tables written by TablebaseGenerator.
+ * Scores follow the Search convention: Search.MATE - n when the side to move mates in n plies,
+ * -Search.MATE + n when it is mated in n plies, 0 for a draw. Bare kings and a king with a single minor piece
+ * against a lone king are draws without any table. Castling rights are not part of the tables and are ignored.
+ */
+public class Tablebases {
+
+    public static final int MAX_PIECES = 4;
+    // Returned by probe for positions no loaded table covers
+    public static final int UNKNOWN = Integer.MIN_VALUE;
+
+    private static final Material[] MATERIALS = Material.values();
+    private static final PieceType[] TYPES = PieceType.values();
+
+    private final Table[] tables = new Table[MATERIALS.length];
+
+    private Tablebases() {
+    }
+
+    // Maps every table found in the directory; materials without a file are left out
+    public static Tablebases open(Path directory) throws IOException {
+        Tablebases tablebases = new Tablebases();
+        for (Material material : MATERIALS) {
+            Path file = directory.resolve(material.fileName());
+            if (Files.exists(file)) {
+                tablebases.tables[material.ordinal()] = Table.open(file, material);
+            }
+        }
+        return tablebases;
+    }
+
+    public boolean contains(Material material) {
+        return tables[material.ordinal()] != null;
+    }
+
+    // Score of the position for the side to move, or UNKNOWN
+    public int probe(ChessMatch match) {
+        long occupied = match.getOccupancy();
+        if (Long.bitCount(occupied) > MAX_PIECES) {
+            return UNKNOWN;
+        }
+        long white = pieces(match, Color.WHITE);
+        long black = pieces(match, Color.BLACK);
+        if (white != 0 && black != 0) {
+            return UNKNOWN;
+        }
+        if (white == 0 && black == 0) {
+            return 0;
+        }
+        Color strong = (white != 0) ? Color.WHITE : Color.BLACK;
+        Material material = material(match, strong);
+        if (material == null) {
+            return (Long.bitCount(white | black) == 1) ? 0 : UNKNOWN; // Lone minor piece
+        }
+        Table table = tables[material.ordinal()];
+        if (table == null) {
+            return UNKNOWN;
+        }
+
+        // Tables have the stronger side as White: for Black, flip the board top to bottom.
+        // Same index as Material.index, built in place since Search probes at every node with few pieces
+        int flip = (strong == Color.WHITE) ? 0 : 56;
+        int index = (Long.numberOfTrailingZeros(match.getBitboard(strong, PieceType.KING)) ^ flip) << 6
+                | (Long.numberOfTrailingZeros(match.getBitboard(strong.opponent(), PieceType.KING)) ^ flip);
+        for (int i = 0; i < material.extraPieces(); i++) {
+            index = (index << 6) | (Long.numberOfTrailingZeros(match.getBitboard(strong, material.extraPiece(i))) ^ flip);
+        }
+        if (match.getCurrentPlayer() != strong) {
+            index += material.placements();
+        }
+        int value = table.get(index);
+        if (value == 0) {
+            return 0;
+        }
+        int plies = value - 1;
+        return (plies % 2 == 1) ? Search.MATE - plies : -Search.MATE + plies;
+    }
+
+    /**
+     * Move that mates fastest, or when losing holds out longest; Move.NONE when the position is not covered.
+     * legalMoves is filled with the match's legal moves. Each one is played and taken back on the match,
+     * which is left as it was.
+     */
+    public int bestMove(ChessMatch match, MoveList legalMoves) {
+        if (probe(match) == UNKNOWN) {
+            return Move.NONE;
+        }
+        match.generateMoves(legalMoves);
+        int bestMove = Move.NONE;
+        int bestScore = UNKNOWN;
+        for (int i = 0; i < legalMoves.size(); i++) {
+            int move = legalMoves.get(i);
+            match.makeMove(move);
+            int score = probe(match);
+            match.undoMove();
+            if (score != UNKNOWN && -score > bestScore) {
+                bestScore = -score;
+                bestMove = move;
+            }
+        }
+        return bestMove;
+    }
+
+    private static long pieces(ChessMatch match, Color color) {
+        long pieces = 0;
+        for (PieceType type : TYPES) {
+            if (type != PieceType.KING) {
+                pieces |= match.getBitboard(color, type);
+            }
+        }
+        return pieces;
+    }
+
+    // Table of the stronger side's pieces, or null when no table has them
+    private static Material material(ChessMatch match, Color strong) {
+        for (Material material : MATERIALS) {
+            long expected = 0;
+            for (int i = 0; i < material.extraPieces(); i++) {
+                long bitboard = match.getBitboard(strong, material.extraPiece(i));
+                if (Long.bitCount(bitboard) != 1) {
+                    expected = -1;
+                    break;
+                }
+                expected |= bitboard;
+            }
+            if (expected != -1 && expected == pieces(match, strong)) {
+                return material;
+            }
+        }
+        return null;
+    }
+}
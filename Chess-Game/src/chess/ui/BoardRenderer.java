@@ -0,0 +1,239 @@
+package chess.ui;
+
+import chess.Bitboards;
+import chess.ChessMatch;
+import chess.ChessPiece;
+import chess.Color;
+import chess.PieceType;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Console frames for the board, built in one reusable byte buffer and written with a single write and flush.
+ * The renderer remembers what each square showed in the previous frame and only moves the cursor to the squares
+ * that changed, so a move usually costs a few dozen bytes instead of a cleared screen and a full redraw.
+ * The text under the board (captured pieces, turn, status) is rewritten on every frame after erasing whatever
+ * the previous frame and the prompts below it left there.
+ *
+ * The layout assumes the board stays at the top of the screen; call invalidate after anything else clears or
+ * scrolls it, and the next frame starts over from a cleared screen.
+ */
+public class BoardRenderer {
+
+    private static final byte[] CLEAR_SCREEN = ascii("\u001B[H\u001B[2J");
+    private static final byte[] ERASE_BELOW = ascii("\u001B[J");
+    private static final byte[] RESET = ascii("\u001B[0m");
+    private static final byte[] WHITE = ascii("\u001B[37m");
+    private static final byte[] YELLOW = ascii("\u001B[33m");
+    private static final byte[] HIGHLIGHT = ascii("\u001B[44m");
+    private static final byte[] FILES = ascii("  a b c d e f g h\n");
+
+    // Screen line the text under the board starts on: eight ranks and the file letters come first
+    private static final int FOOTER_LINE = 10;
+    // Cell codes: 0 for an empty square, otherwise PieceType.index(color) + 1, plus this bit for a highlighted square
+    private static final int HIGHLIGHTED = 0x10;
+    private static final byte[] GLYPHS = new byte[12];
+
+    static {
+        for (Color color : Color.values()) {
+            for (PieceType type : PieceType.values()) {
+                GLYPHS[type.index(color)] = (byte) ChessPiece.of(color, type).toString().charAt(0);
+            }
+        }
+    }
+
+    private final OutputStream out;
+    private byte[] buffer = new byte[2048];
+    private int length;
+    private final byte[] drawn = new byte[64];
+    private boolean valid;
+    // Cursor position while a frame is built, 1-based; 0 when unknown
+    private int cursorLine;
+    private int cursorColumn;
+    private int lastFrameBytes;
+
+    public BoardRenderer(OutputStream out) {
+        this.out = out;
+    }
+
+    // The next frame clears the screen and draws everything
+    public void invalidate() {
+        valid = false;
+    }
+
+    // Board followed by the captured pieces and the game status
+    public void drawMatch(ChessMatch match, List<ChessPiece> captured) {
+        board(match, 0L);
+        append('\n');
+        append("Captured pieces:\n");
+        capturedPieces("White: ", WHITE, Color.WHITE, captured);
+        capturedPieces("Black: ", YELLOW, Color.BLACK, captured);
+        append('\n');
+        append("Turn : ");
+        appendNumber(match.getTurn());
+        append('\n');
+        if (match.getDraw() != null) {
+            append("DRAW! (");
+            append(match.getDraw().toString());
+            append(")\n");
+        } else if (!match.getCheckMate()) {
+            append("Waiting player: ");
+            append(match.getCurrentPlayer().toString());
+            append('\n');
+            if (match.getCheck()) {
+                append("CHECK!\n");
+            }
+        } else {
+            append("CHECKMATE!\nWinner: ");
+            append(match.getCurrentPlayer().opponent().toString());
+            append('\n');
+        }
+        flush();
+    }
+
+    // Board alone, with a set of squares (such as the targets from ChessMatch.possibleMovesMask) highlighted
+    public void drawBoard(ChessMatch match, long highlighted) {
+        board(match, highlighted);
+        flush();
+    }
+
+    // Size of the last frame written, escape sequences included
+    public int getLastFrameBytes() {
+        return lastFrameBytes;
+    }
+
+    private void board(ChessMatch match, long highlighted) {
+        length = 0;
+        if (!valid) {
+            append(CLEAR_SCREEN);
+            for (int row = 0; row < 8; row++) {
+                append((char) ('8' - row));
+                append(' ');
+                for (int column = 0; column < 8; column++) {
+                    int square = row * 8 + column;
+                    int cell = cell(match, square, highlighted);
+                    drawn[square] = (byte) cell;
+                    appendCell(cell);
+                }
+                append('\n');
+            }
+            append(FILES);
+            valid = true;
+        } else {
+            cursorLine = 0;
+            for (int square = 0; square < 64; square++) {
+                int cell = cell(match, square, highlighted);
+                if (drawn[square] != cell) {
+                    drawn[square] = (byte) cell;
+                    moveCursor(Bitboards.row(square) + 1, Bitboards.column(square) * 2 + 3);
+                    appendCell(cell);
+                    cursorColumn += 2;
+                }
+            }
+            moveCursor(FOOTER_LINE, 1);
+            append(ERASE_BELOW);
+        }
+    }
+
+    private static int cell(ChessMatch match, int square, long highlighted) {
+        ChessPiece piece = match.getPiece(square);
+        int cell = (piece == null) ? 0 : piece.getType().index(piece.getColor()) + 1;
+        return ((highlighted & Bitboards.bit(square)) != 0) ? cell | HIGHLIGHTED : cell;
+    }
+
+    // Same bytes the console has always printed per square, trailing space included
+    private void appendCell(int cell) {
+        if ((cell & HIGHLIGHTED) != 0) {
+            append(HIGHLIGHT);
+        }
+        int piece = cell & ~HIGHLIGHTED;
+        if (piece == 0) {
+            append('-');
+        } else {
+            append((piece <= 6) ? WHITE : YELLOW);
+            append((char) GLYPHS[piece - 1]);
+        }
+        append(RESET);
+        append(' ');
+    }
+
+    // Cursor position escape, left out when the cursor is already there
+    private void moveCursor(int line, int column) {
+        if (line == cursorLine && column == cursorColumn) {
+            return;
+        }
+        append('\u001B');
+        append('[');
+        appendNumber(line);
+        append(';');
+        appendNumber(column);
+        append('H');
+        cursorLine = line;
+        cursorColumn = column;
+    }
+
+    private void capturedPieces(String label, byte[] colorCode, Color color, List<ChessPiece> captured) {
+        append(label);
+        append(colorCode);
+        append('[');
+        boolean first = true;
+        for (ChessPiece piece : captured) {
+            if (piece.getColor() == color) {
+                if (!first) {
+                    append(", ");
+                }
+                append((char) GLYPHS[piece.getType().index(color)]);
+                first = false;
+            }
+        }
+        append("]\n");
+        append(RESET);
+    }
+
+    private void flush() {
+        try {
+            out.write(buffer, 0, length);
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        lastFrameBytes = length;
+    }
+
+    private void append(char c) {
+        if (length == buffer.length) {
+            buffer = Arrays.copyOf(buffer, buffer.length * 2);
+        }
+        buffer[length++] = (byte) c;
+    }
+
+    private void append(String s) {
+        for (int i = 0; i < s.length(); i++) {
+            append(s.charAt(i));
+        }
+    }
+
+    private void append(byte[] bytes) {
+        if (length + bytes.length > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, length + bytes.length));
+        }
+        System.arraycopy(bytes, 0, buffer, length, bytes.length);
+        length += bytes.length;
+    }
+
+    private void appendNumber(int n) {
+        if (n >= 10) {
+            appendNumber(n / 10);
+        }
+        append((char) ('0' + n % 10));
+    }
+
+    private static byte[] ascii(String s) {
+        return s.getBytes(StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,127 @@
+package chess;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DrawTest {
+
+    @Test
+    void threefoldRepetition() {
+        ChessMatch match = new ChessMatch();
+        String[] knights = {"g1f3", "g8f6", "f3g1", "f6g8"};
+        for (String move : knights) {
+            play(match, move);
+        }
+        // Second occurrence of the start position: a search may call it a draw, the game goes on
+        assertTrue(match.isRepetition());
+        assertNull(match.getDraw());
+
+        for (int i = 0; i < 3; i++) {
+            play(match, knights[i]);
+            assertNull(match.getDraw());
+        }
+        play(match, knights[3]);
+        assertEquals(DrawReason.THREEFOLD_REPETITION, match.getDraw());
+
+        match.undo();
+        assertNull(match.getDraw());
+    }
+
+    @Test
+    void repetitionNeedsTheSameSideToMove() {
+        // The white king walks a triangle back to h1 while the black king steps to g8 and back,
+        // so the placement of the start returns with black to move
+        ChessMatch match = new ChessMatch("7k/8/8/8/8/8/8/R6K w - - 0 1");
+        String[] moves = {"h1g1", "h8g8", "g1g2", "g8h8", "g2h1"};
+        for (String move : moves) {
+            play(match, move);
+            assertFalse(match.isRepetition(), move);
+        }
+        assertEquals("7k/8/8/8/8/8/8/R6K b - - 5 3", match.toFen());
+
+        // Black steps out and back as well, bringing back the position after g2h1
+        play(match, "h8g8");
+        play(match, "a1a2");
+        play(match, "g8h8");
+        play(match, "a2a1");
+        assertTrue(match.isRepetition());
+    }
+
+    @Test
+    void copiesKeepTheRepetitionHistory() {
+        ChessMatch match = new ChessMatch();
+        for (String move : new String[] {"e2e4", "e7e5", "g1f3", "g8f6", "f3g1", "f6g8", "g1f3", "g8f6", "f3g1"}) {
+            play(match, move);
+        }
+        ChessMatch copy = new ChessMatch(match);
+        assertTrue(copy.isRepetition());
+        play(copy, "f6g8");
+        assertEquals(DrawReason.THREEFOLD_REPETITION, copy.getDraw());
+    }
+
+    @Test
+    void fiftyMoveRule() {
+        ChessMatch match = new ChessMatch("7k/8/8/8/8/8/8/R6K w - - 98 80");
+        play(match, "a1a2");
+        assertNull(match.getDraw());
+        play(match, "h8g8");
+        assertEquals(100, match.getHalfmoveClock());
+        assertEquals(DrawReason.FIFTY_MOVE_RULE, match.getDraw());
+
+        match.undo();
+        assertNull(match.getDraw());
+        assertEquals(DrawReason.FIFTY_MOVE_RULE, new ChessMatch("7k/8/8/8/8/8/8/R6K w - - 100 80").getDraw());
+    }
+
+    @Test
+    void checkmateOnTheHundredthPlyIsNotADraw() {
+        ChessMatch match = new ChessMatch("7k/8/6K1/8/8/8/8/R7 w - - 99 80");
+        play(match, "a1a8");
+        assertTrue(match.getCheckMate());
+        assertNull(match.getDraw());
+    }
+
+    @Test
+    void insufficientMaterial() {
+        assertEquals(DrawReason.INSUFFICIENT_MATERIAL, new ChessMatch("7k/8/8/8/8/8/8/K7 w - - 0 1").getDraw());
+        assertEquals(DrawReason.INSUFFICIENT_MATERIAL, new ChessMatch("7k/8/8/8/8/8/8/KN6 w - - 0 1").getDraw());
+        assertEquals(DrawReason.INSUFFICIENT_MATERIAL, new ChessMatch("7k/8/8/8/8/8/8/KB6 w - - 0 1").getDraw());
+        // Bishops all on light squares (b1, a8) or all on dark squares (c1, h6)
+        assertEquals(DrawReason.INSUFFICIENT_MATERIAL, new ChessMatch("b6k/8/8/8/8/8/8/KB6 w - - 0 1").getDraw());
+        assertEquals(DrawReason.INSUFFICIENT_MATERIAL, new ChessMatch("7k/8/7b/8/8/8/8/K1B5 w - - 0 1").getDraw());
+
+        // Bishops on both colors, two knights, any pawn, rook or queen can still mate
+        assertNull(new ChessMatch("1b5k/8/8/8/8/8/8/KB6 w - - 0 1").getDraw());
+        assertNull(new ChessMatch("7k/8/8/8/8/8/8/KNN5 w - - 0 1").getDraw());
+        assertNull(new ChessMatch("7k/8/8/8/8/8/8/KBn5 w - - 0 1").getDraw());
+        assertNull(new ChessMatch("7k/8/8/8/8/8/P7/K7 w - - 0 1").getDraw());
+        assertNull(new ChessMatch("7k/8/8/8/8/8/8/KR6 w - - 0 1").getDraw());
+    }
+
+    @Test
+    void captureOfTheLastPieceDraws() {
+        ChessMatch match = new ChessMatch("7k/8/8/8/8/8/1r6/K7 w - - 0 1");
+        assertNull(match.getDraw());
+        play(match, "a1b2");
+        assertEquals(DrawReason.INSUFFICIENT_MATERIAL, match.getDraw());
+        match.undo();
+        assertNull(match.getDraw());
+    }
+
+    @Test
+    void stalemate() {
+        ChessMatch match = new ChessMatch("7k/8/8/5Q2/8/8/8/K7 w - - 0 1");
+        play(match, "f5g6");
+        assertTrue(match.getStalemate());
+        assertEquals(DrawReason.STALEMATE, match.getDraw());
+    }
+
+    private static void play(ChessMatch match, String move) {
+        match.performChessMove(new ChessPosition(move.charAt(0), move.charAt(1) - '0'),
+                new ChessPosition(move.charAt(2), move.charAt(3) - '0'));
+    }
+}
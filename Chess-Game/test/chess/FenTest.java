@@ -0,0 +1,95 @@
+package chess;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class FenTest {
+
+    private static final String START = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+    @Test
+    void roundTrips() {
+        String[] fens = {
+                START,
+                "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+                "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+                "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8",
+                "rnbqkbnr/ppp1p1pp/8/3pPp2/8/8/PPPP1PPP/RNBQKBNR w KQkq f6 0 3",
+                "4k3/8/8/8/8/8/8/4K2R b K - 37 120",
+        };
+        for (String fen : fens) {
+            assertEquals(fen, new ChessMatch(fen).toFen());
+        }
+        assertEquals(START, new ChessMatch().toFen());
+    }
+
+    @Test
+    void countersMayBeLeftOut() {
+        assertEquals("4k3/8/8/8/8/8/8/4K3 w - - 0 1", new ChessMatch("4k3/8/8/8/8/8/8/4K3 w - -").toFen());
+    }
+
+    @Test
+    void playedMovesShowInTheFen() {
+        ChessMatch match = new ChessMatch();
+        match.performChessMove(new ChessPosition('e', 2), new ChessPosition('e', 4));
+        assertEquals("rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 1", match.toFen());
+        match.performChessMove(new ChessPosition('g', 8), new ChessPosition('f', 6));
+        assertEquals("rnbqkb1r/pppppppp/5n2/8/4P3/8/PPPP1PPP/RNBQKBNR w KQkq - 1 2", match.toFen());
+        assertEquals(match.toFen(), new ChessMatch(match.toFen()).toFen());
+    }
+
+    @Test
+    void rejectsInvalidFens() {
+        String[] fens = {
+                "",
+                // Placement only, and placements that are too short or too long
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP w KQkq - 0 1",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR/8 w KQkq - 0 1",
+                "rnbqkbnr/ppppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+                "rnbqkbnx/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+                // Pawns on the first or last rank
+                "P3k3/8/8/8/8/8/8/4K3 w - - 0 1",
+                "4k3/8/8/8/8/8/8/p3K3 w - - 0 1",
+                // Kings
+                "8/8/8/8/8/8/8/4K3 w - - 0 1",
+                "4k3/8/8/8/8/8/8/3KK3 w - - 0 1",
+                // Side to move
+                "4k3/8/8/8/8/8/8/4K2R x - - 0 1",
+                // Castling rights
+                "4k3/8/8/8/8/8/8/4K3 w K - 0 1",
+                "4k3/8/8/8/8/8/8/4K2R w KK - 0 1",
+                "4k3/8/8/8/8/8/8/4K2R w X - 0 1",
+                // En passant
+                "4k3/8/8/8/8/8/8/4K3 w - e6 0 1",
+                "4k3/8/8/8/8/8/8/4K3 w - e3 0 1",
+                "4k3/8/8/8/8/8/8/4K3 w - z9 0 1",
+                // Counters and trailing text
+                "4k3/8/8/8/8/8/8/4K3 w - - x 1",
+                "4k3/8/8/8/8/8/8/4K3 w - - 0 1x",
+                "4k3/8/8/8/8/8/8/4K3 w - - 1234567 1",
+                "4k3/8/8/8/8/8/8/4K3 w - - 0 1 extra",
+                // The side not to move is in check
+                "4k3/8/8/8/8/8/8/4R1K1 w - - 0 1",
+        };
+        for (String fen : fens) {
+            assertThrows(ChessException.class, () -> new ChessMatch(fen), fen);
+        }
+    }
+
+    @Test
+    void invalidFenLeavesTheMatchAsItWas() {
+        ChessMatch match = new ChessMatch();
+        match.performChessMove(new ChessPosition('e', 2), new ChessPosition('e', 4));
+        String fen = match.toFen();
+        assertThrows(ChessException.class, () -> match.loadFen("P3k3/8/8/8/8/8/8/4K3 w - - 0 1"));
+        assertThrows(ChessException.class, () -> match.loadFen("4k3/8/8/8/8/8/8/4K3"));
+        assertEquals(fen, match.toFen());
+        match.undo();
+        assertEquals(START, match.toFen());
+        assertFalse(match.canUndo());
+    }
+}
@@ -0,0 +1,66 @@
+package chess;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Node counts of the standard perft positions (chessprogramming.org/Perft_Results), at depths that run in seconds
+class PerftTest {
+
+    private static final String KIWIPETE = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1";
+    private static final String POSITION_3 = "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1";
+    private static final String POSITION_4 = "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1";
+    private static final String POSITION_5 = "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8";
+
+    @Test
+    void startPosition() {
+        ChessMatch match = new ChessMatch();
+        assertEquals(20, Perft.count(match, 1));
+        assertEquals(400, Perft.count(match, 2));
+        assertEquals(8902, Perft.count(match, 3));
+        assertEquals(197281, Perft.count(match, 4));
+    }
+
+    @Test
+    void kiwipete() {
+        ChessMatch match = new ChessMatch(KIWIPETE);
+        assertEquals(48, Perft.count(match, 1));
+        assertEquals(2039, Perft.count(match, 2));
+        assertEquals(97862, Perft.count(match, 3));
+    }
+
+    @Test
+    void position3() {
+        ChessMatch match = new ChessMatch(POSITION_3);
+        assertEquals(14, Perft.count(match, 1));
+        assertEquals(191, Perft.count(match, 2));
+        assertEquals(2812, Perft.count(match, 3));
+        assertEquals(43238, Perft.count(match, 4));
+    }
+
+    @Test
+    void position4() {
+        ChessMatch match = new ChessMatch(POSITION_4);
+        assertEquals(6, Perft.count(match, 1));
+        assertEquals(264, Perft.count(match, 2));
+        assertEquals(9467, Perft.count(match, 3));
+    }
+
+    @Test
+    void position5() {
+        ChessMatch match = new ChessMatch(POSITION_5);
+        assertEquals(44, Perft.count(match, 1));
+        assertEquals(1486, Perft.count(match, 2));
+        assertEquals(62379, Perft.count(match, 3));
+    }
+
+    @Test
+    void parallelRunWithHashMatchesCount() {
+        ChessMatch match = new ChessMatch(KIWIPETE);
+        Perft.Result result = new Perft(match, 4, 16).run(4);
+        assertEquals(4085603, result.getNodes());
+        assertEquals(48, result.getRootMoveCount());
+        // The root position is only read
+        assertEquals(KIWIPETE, match.toFen());
+    }
+}
@@ -0,0 +1,115 @@
+package chess;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UndoRedoTest {
+
+    @Test
+    void enPassant() {
+        String before = "rnbqkbnr/ppp1p1pp/8/3pPp2/8/8/PPPP1PPP/RNBQKBNR w KQkq f6 0 3";
+        String after = "rnbqkbnr/ppp1p1pp/5P2/3p4/8/8/PPPP1PPP/RNBQKBNR b KQkq - 0 3";
+        ChessMatch match = new ChessMatch(before);
+        long key = match.getZobristKey();
+
+        ChessPiece captured = match.performChessMove(new ChessPosition('e', 5), new ChessPosition('f', 6));
+        assertEquals(ChessPiece.of(Color.BLACK, PieceType.PAWN), captured);
+        assertEquals(after, match.toFen());
+        long afterKey = match.getZobristKey();
+
+        match.undo();
+        assertEquals(before, match.toFen());
+        assertEquals(key, match.getZobristKey());
+        assertTrue(match.canRedo());
+
+        match.redo();
+        assertEquals(after, match.toFen());
+        assertEquals(afterKey, match.getZobristKey());
+        assertFalse(match.canRedo());
+    }
+
+    @Test
+    void underpromotionWithCapture() {
+        String before = "1r5k/P7/8/8/8/8/8/K7 w - - 0 1";
+        String after = "1N5k/8/8/8/8/8/8/K7 b - - 0 1";
+        ChessMatch match = new ChessMatch(before);
+
+        match.performChessMove(new ChessPosition('a', 7), new ChessPosition('b', 8));
+        assertEquals(ChessPiece.of(Color.WHITE, PieceType.QUEEN), match.getPromoted());
+        match.replacePromotedPiece(PieceType.KNIGHT);
+        assertEquals(after, match.toFen());
+        assertEquals(new ChessMatch(after).getZobristKey(), match.getZobristKey());
+
+        match.undo();
+        assertEquals(before, match.toFen());
+        assertEquals(new ChessMatch(before).getZobristKey(), match.getZobristKey());
+
+        // The move remembers the piece chosen, so redo brings back the knight rather than a queen
+        match.redo();
+        assertEquals(after, match.toFen());
+        assertEquals(new ChessMatch(after).getZobristKey(), match.getZobristKey());
+    }
+
+    @Test
+    void promotionToRookAndBishop() {
+        ChessMatch match = new ChessMatch("7k/P7/8/8/8/8/8/K7 w - - 0 1");
+        match.performChessMove(new ChessPosition('a', 7), new ChessPosition('a', 8));
+        match.replacePromotedPiece(PieceType.ROOK);
+        assertEquals("R6k/8/8/8/8/8/8/K7 b - - 0 1", match.toFen());
+        match.undo();
+        match.performChessMove(new ChessPosition('a', 7), new ChessPosition('a', 8));
+        match.replacePromotedPiece(PieceType.BISHOP);
+        assertEquals("B6k/8/8/8/8/8/8/K7 b - - 0 1", match.toFen());
+    }
+
+    @Test
+    void rejectsPromotionToKingOrPawn() {
+        ChessMatch match = new ChessMatch("7k/P7/8/8/8/8/8/K7 w - - 0 1");
+        match.performChessMove(new ChessPosition('a', 7), new ChessPosition('a', 8));
+        assertThrows(ChessException.class, () -> match.replacePromotedPiece(PieceType.KING));
+        assertThrows(ChessException.class, () -> match.replacePromotedPiece(PieceType.PAWN));
+        assertEquals("Q6k/8/8/8/8/8/8/K7 b - - 0 1", match.toFen());
+    }
+
+    @Test
+    void castlingAndAWholeLineBackToTheStart() {
+        String start = new ChessMatch().toFen();
+        ChessMatch match = new ChessMatch();
+        String[] line = {"e2e4", "e7e5", "g1f3", "b8c6", "f1c4", "g8f6", "e1g1", "f6e4", "d2d4", "e5d4"};
+        String[] fens = new String[line.length];
+        for (int i = 0; i < line.length; i++) {
+            String move = line[i];
+            match.performChessMove(new ChessPosition(move.charAt(0), move.charAt(1) - '0'),
+                    new ChessPosition(move.charAt(2), move.charAt(3) - '0'));
+            fens[i] = match.toFen();
+        }
+        assertEquals("r1bqkb1r/pppp1ppp/2n5/8/2Bpn3/5N2/PPP2PPP/RNBQ1RK1 w kq - 0 6", fens[9]);
+
+        for (int i = line.length - 1; i >= 0; i--) {
+            assertEquals(fens[i], match.toFen());
+            match.undo();
+        }
+        assertEquals(start, match.toFen());
+        assertFalse(match.canUndo());
+        for (String fen : fens) {
+            match.redo();
+            assertEquals(fen, match.toFen());
+        }
+    }
+
+    @Test
+    void aNewMoveDropsTheRedoLine() {
+        ChessMatch match = new ChessMatch();
+        match.performChessMove(new ChessPosition('e', 2), new ChessPosition('e', 4));
+        match.undo();
+        match.performChessMove(new ChessPosition('d', 2), new ChessPosition('d', 4));
+        assertFalse(match.canRedo());
+        assertThrows(ChessException.class, match::redo);
+        assertNull(match.getPromoted());
+    }
+}
@@ -0,0 +1,164 @@
+package chess.journal;
+
+import chess.ChessMatch;
+import chess.Move;
+import chess.MoveList;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32C;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MoveJournalTest {
+
+    private static final int MATCHES = 5;
+    private static final int PLIES = 15;
+    // Match 0 plays PLIES + 1 moves, so its last one is not followed by a snapshot
+    private static final int SNAPSHOT_INTERVAL = 5;
+
+    @TempDir
+    Path directory;
+
+    private Path file;
+    // Final position of every match, and of match 0 before its last move, which is the last record in the file
+    private final String[] fens = new String[MATCHES];
+    private String beforeLastMove;
+
+    @BeforeEach
+    void writeJournal() throws IOException {
+        file = directory.resolve("moves.journal");
+        MoveList moves = new MoveList();
+        SplittableRandom random = new SplittableRandom(7);
+        try (MoveJournal journal = new MoveJournal(file, SNAPSHOT_INTERVAL, false)) {
+            ChessMatch[] matches = new ChessMatch[MATCHES];
+            for (int id = 0; id < MATCHES; id++) {
+                matches[id] = new ChessMatch();
+                journal.attach(id, matches[id]);
+            }
+            for (int ply = 0; ply < PLIES; ply++) {
+                for (ChessMatch match : matches) {
+                    playRandom(match, moves, random);
+                }
+            }
+            matches[3].undo();
+            beforeLastMove = matches[0].toFen();
+            playRandom(matches[0], moves, random);
+            journal.flush();
+            for (int id = 0; id < MATCHES; id++) {
+                fens[id] = matches[id].toFen();
+            }
+        }
+    }
+
+    @Test
+    void recoversEveryMatch() throws IOException {
+        long size = Files.size(file);
+        Map<Integer, String> recovered = recover();
+        assertEquals(MATCHES, recovered.size());
+        for (int id = 0; id < MATCHES; id++) {
+            assertEquals(fens[id], recovered.get(id));
+        }
+        assertEquals(size, Files.size(file));
+    }
+
+    @Test
+    void leavesOutDetachedMatches() throws IOException {
+        try (MoveJournal journal = new MoveJournal(file, SNAPSHOT_INTERVAL, false)) {
+            ChessMatch match = new ChessMatch(fens[1]);
+            journal.detach(1, match);
+            journal.flush();
+        }
+        Map<Integer, String> recovered = recover();
+        assertEquals(MATCHES - 1, recovered.size());
+        assertFalse(recovered.containsKey(1));
+    }
+
+    @Test
+    void truncatesATornRecord() throws IOException {
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 5));
+
+        Map<Integer, String> recovered = recover();
+        assertEquals(MATCHES, recovered.size());
+        assertEquals(beforeLastMove, recovered.get(0));
+        for (int id = 1; id < MATCHES; id++) {
+            assertEquals(fens[id], recovered.get(id));
+        }
+        assertEquals(bytes.length - MoveJournal.RECORD_BYTES, Files.size(file));
+    }
+
+    @Test
+    void truncatesAtACorruptedRecord() throws IOException {
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length - 3] ^= 0x10;
+        Files.write(file, bytes);
+
+        Map<Integer, String> recovered = recover();
+        assertEquals(beforeLastMove, recovered.get(0));
+        assertEquals(bytes.length - MoveJournal.RECORD_BYTES, Files.size(file));
+    }
+
+    @Test
+    void corruptionInTheMiddleDropsEverythingAfterIt() throws IOException {
+        byte[] bytes = Files.readAllBytes(file);
+        int damaged = bytes.length / 2;
+        bytes[damaged] ^= 0x40;
+        Files.write(file, bytes);
+
+        MoveJournal.Recovery recovery = MoveJournal.recover(file, 2, (match, id) -> { });
+        assertTrue(recovery.getFailedIds().isEmpty());
+        long size = Files.size(file);
+        assertTrue(size <= damaged && size > 0, "truncated to " + size);
+
+        // What is left is whole, so recovering again changes nothing
+        MoveJournal.recover(file, 2, (match, id) -> { });
+        assertEquals(size, Files.size(file));
+    }
+
+    @Test
+    void aRecordThatDoesNotReplayFailsOnlyItsMatch() throws IOException {
+        // Well formed and checksummed, but naming a piece type that does not exist
+        ByteBuffer record = ByteBuffer.allocate(MoveJournal.RECORD_BYTES);
+        record.put(MoveJournal.PROMOTION).putInt(2).putShort((short) 9);
+        CRC32C crc = new CRC32C();
+        crc.update(record.array(), 0, MoveJournal.HEADER_BYTES);
+        record.putInt((int) crc.getValue());
+        Files.write(file, record.array(), StandardOpenOption.APPEND);
+
+        Map<Integer, String> recovered = new ConcurrentHashMap<>();
+        MoveJournal.Recovery recovery = MoveJournal.recover(file, 2, (match, id) -> recovered.put(id, match.toFen()));
+        assertEquals(List.of(2), recovery.getFailedIds());
+        assertEquals(MATCHES - 1, recovered.size());
+        assertEquals(fens[0], recovered.get(0));
+        assertEquals(fens[4], recovered.get(4));
+    }
+
+    private Map<Integer, String> recover() throws IOException {
+        Map<Integer, String> recovered = new ConcurrentHashMap<>();
+        MoveJournal.Recovery recovery = MoveJournal.recover(file, 2, (match, id) -> recovered.put(id, match.toFen()));
+        assertTrue(recovery.getFailedIds().isEmpty());
+        return recovered;
+    }
+
+    private static void playRandom(ChessMatch match, MoveList moves, SplittableRandom random) {
+        match.generateMoves(moves);
+        if (!moves.isEmpty()) {
+            int move = moves.get(random.nextInt(moves.size()));
+            match.tryMove(Move.from(move), Move.to(move));
+        }
+    }
+}
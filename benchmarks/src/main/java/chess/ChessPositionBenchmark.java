@@ -0,0 +1,51 @@
+package chess;
+
+import boardgame.Position;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChessPositionBenchmark {
+
+    private final ChessPosition[] chessPositions = new ChessPosition[64];
+    private final Position[] positions = new Position[64];
+
+    @Setup
+    public void setup() {
+        for (int sq = 0; sq < 64; sq++) {
+            positions[sq] = new Position(Bitboards.row(sq), Bitboards.column(sq));
+            chessPositions[sq] = ChessPosition.fromPosition(positions[sq]);
+        }
+    }
+
+    // All 64 squares per invocation
+    @Benchmark
+    public void toPosition(Blackhole bh) {
+        for (ChessPosition p : chessPositions) {
+            bh.consume(p.toPosition());
+        }
+    }
+
+    @Benchmark
+    public void fromPosition(Blackhole bh) {
+        for (Position p : positions) {
+            bh.consume(ChessPosition.fromPosition(p));
+        }
+    }
+}
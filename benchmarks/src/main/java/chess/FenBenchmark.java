@@ -0,0 +1,56 @@
+package chess;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FenBenchmark {
+
+    @Param({Positions.START, Positions.MIDDLEGAME, Positions.KIWIPETE})
+    public String position;
+
+    private String fen;
+    private ChessMatch match;
+    private final StringBuilder sb = new StringBuilder(90);
+
+    @Setup
+    public void setup() {
+        match = Positions.create(position);
+        fen = match.toFen();
+    }
+
+    // Reuses the match, so only the pieces are allocated
+    @Benchmark
+    public ChessMatch load() {
+        match.loadFen(fen);
+        return match;
+    }
+
+    @Benchmark
+    public ChessMatch construct() {
+        return new ChessMatch(fen);
+    }
+
+    @Benchmark
+    public StringBuilder store() {
+        sb.setLength(0);
+        match.appendFen(sb);
+        return sb;
+    }
+}
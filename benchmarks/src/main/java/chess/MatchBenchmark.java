@@ -0,0 +1,104 @@
+package chess;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MatchBenchmark {
+
+    @Param({Positions.START, Positions.OPENING, Positions.MIDDLEGAME, Positions.CHECK})
+    private String position;
+
+    private ChessMatch match;
+    private final MoveList moves = new MoveList();
+    private int move;
+    private ChessPosition source;
+    private ChessPosition target;
+
+    @Setup
+    public void setup() {
+        match = Positions.create(position);
+        match.generateMoves(moves);
+        move = moves.get(0);
+        source = ChessPosition.fromPosition(new boardgame.Position(Bitboards.row(Move.from(move)), Bitboards.column(Move.from(move))));
+        target = ChessPosition.fromPosition(new boardgame.Position(Bitboards.row(Move.to(move)), Bitboards.column(Move.to(move))));
+    }
+
+    // Includes the undoMove that restores the position for the next invocation
+    @Benchmark
+    public ChessPiece performChessMove() {
+        ChessPiece captured = match.performChessMove(source, target);
+        match.undoMove();
+        return captured;
+    }
+
+    // An interactive move: highlight the targets, then play it (validation reuses the cached legal moves)
+    @Benchmark
+    public ChessPiece userMove() {
+        match.possibleMoves(source);
+        ChessPiece captured = match.performChessMove(source, target);
+        match.undoMove();
+        return captured;
+    }
+
+    // A piece moved onto its own square: rejected as a status code, then as the exception performChessMove throws
+    @Benchmark
+    public int rejectIllegalMove() {
+        return match.tryMove(Move.from(move), Move.from(move));
+    }
+
+    @Benchmark
+    public ChessException rejectIllegalMoveThrowing() {
+        try {
+            match.performChessMove(source, source);
+            return null;
+        } catch (ChessException e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    public ChessPiece makeUndoMove() {
+        ChessPiece captured = match.makeMove(move);
+        match.undoMove();
+        return captured;
+    }
+
+    @Benchmark
+    public int generateLegalMoves() {
+        match.generateMoves(moves);
+        return moves.size();
+    }
+
+    @Benchmark
+    public boolean testCheck() {
+        return match.testCheck(match.getCurrentPlayer());
+    }
+
+    // Answered from the cached legal moves after the first call
+    @Benchmark
+    public boolean testCheckMate() {
+        return match.testCheckMate(match.getCurrentPlayer());
+    }
+
+    @Benchmark
+    public ChessPiece[][] getPieces() {
+        return match.getPieces();
+    }
+}
@@ -0,0 +1,63 @@
+package chess;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PieceBenchmark {
+
+    @Param({Positions.START, Positions.MIDDLEGAME})
+    private String position;
+
+    @Param({"PAWN", "KNIGHT", "BISHOP", "ROOK", "QUEEN", "KING"})
+    private PieceType type;
+
+    private ChessBoard board;
+    private ChessPiece piece;
+    private int square;
+    private boardgame.Position piecePosition;
+    private final MoveList moves = new MoveList();
+
+    // The side to move's first piece of the type in board order
+    @Setup
+    public void setup() {
+        ChessMatch match = Positions.create(position);
+        board = match.getBoard();
+        square = Long.numberOfTrailingZeros(match.getBitboard(match.getCurrentPlayer(), type));
+        piece = board.piece(square);
+        piecePosition = new boardgame.Position(Bitboards.row(square), Bitboards.column(square));
+    }
+
+    @Benchmark
+    public boolean[][] possibleMoves() {
+        return piece.possibleMoves(board, piecePosition);
+    }
+
+    @Benchmark
+    public long possibleMovesMask() {
+        return piece.possibleMovesMask(board, square);
+    }
+
+    @Benchmark
+    public int generateMoves() {
+        moves.clear();
+        piece.generateMoves(board, square, moves);
+        return moves.size();
+    }
+}
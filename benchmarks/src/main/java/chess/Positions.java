@@ -0,0 +1,48 @@
+package chess;
+
+/**
+ * Standard benchmark positions, reached by replaying coordinate moves from the initial setup
+ * or, for positions that take a long line to reach, loaded from FEN.
+ */
+final class Positions {
+
+    static final String START = "start";
+    static final String OPENING = "opening";
+    static final String MIDDLEGAME = "middlegame";
+    static final String CHECK = "check";
+    // Castling, en passant and promotion-heavy test position from the perft literature
+    static final String KIWIPETE = "kiwipete";
+
+    private Positions() {
+    }
+
+    static ChessMatch create(String name) {
+        switch (name) {
+            case START:
+                return play();
+            case OPENING:
+                return play("e2e4", "e7e5", "g1f3", "b8c6", "f1b5", "a7a6");
+            case MIDDLEGAME:
+                return play("e2e4", "e7e5", "g1f3", "b8c6", "f1b5", "a7a6", "b5a4", "g8f6", "e1g1", "f8e7",
+                        "f1e1", "b7b5", "a4b3", "d7d6", "c2c3", "e8g8", "h2h3", "c6a5", "b3c2", "c7c5", "d2d4", "d8c7");
+            case CHECK:
+                return play("e2e4", "d7d5", "f1b5");
+            case KIWIPETE:
+                return new ChessMatch("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1");
+            default:
+                throw new IllegalArgumentException("Unknown benchmark position: " + name);
+        }
+    }
+
+    static ChessMatch play(String... moves) {
+        ChessMatch match = new ChessMatch();
+        for (String move : moves) {
+            match.performChessMove(position(move, 0), position(move, 2));
+        }
+        return match;
+    }
+
+    private static ChessPosition position(String move, int offset) {
+        return new ChessPosition(move.charAt(offset), move.charAt(offset + 1) - '0');
+    }
+}
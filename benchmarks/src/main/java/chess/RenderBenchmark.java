@@ -0,0 +1,130 @@
+package chess;
+
+import chess.ui.BoardRenderer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One console frame per invocation, drawn the way App draws a game: for each move the board with the moving
+ * piece's targets highlighted, then the whole match after the move. The game is a fixed random one that starts
+ * over when it ends. With redraw=full every frame clears the screen and draws everything, as the console did
+ * before BoardRenderer; with redraw=diff only the changed squares are drawn. The bytes written per frame are
+ * printed at the end of the trial.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RenderBenchmark {
+
+    private static final int MAX_PLIES = 200;
+
+    @Param({"diff", "full"})
+    public String redraw;
+
+    private final CountingStream out = new CountingStream();
+    private final BoardRenderer renderer = new BoardRenderer(out);
+    private final List<ChessPiece> captured = new ArrayList<>();
+    private ChessMatch match;
+    private ChessPosition[] sources;
+    private ChessPosition[] targets;
+    private long[] highlights;
+    private int plies;
+    private int ply;
+    private boolean moveNext;
+    private boolean fullRedraw;
+    private long frames;
+
+    @Setup
+    public void setup() {
+        fullRedraw = redraw.equals("full");
+        match = new ChessMatch();
+        sources = new ChessPosition[MAX_PLIES];
+        targets = new ChessPosition[MAX_PLIES];
+        highlights = new long[MAX_PLIES];
+        MoveList moves = new MoveList();
+        SplittableRandom random = new SplittableRandom(1);
+        while (plies < MAX_PLIES && !match.getCheckMate() && match.getDraw() == null) {
+            match.generateMoves(moves);
+            int move = moves.get(random.nextInt(moves.size()));
+            sources[plies] = ChessPosition.fromSquare(Move.from(move));
+            targets[plies] = ChessPosition.fromSquare(Move.to(move));
+            highlights[plies] = match.possibleMovesMask(sources[plies]);
+            match.performChessMove(sources[plies], targets[plies]);
+            plies++;
+        }
+        restart();
+    }
+
+    @TearDown
+    public void report() {
+        System.out.printf("%n%s: %.1f bytes/frame over %d frames%n", redraw, (double) out.bytes / frames, frames);
+    }
+
+    @Benchmark
+    public int frame() {
+        if (ply == plies) {
+            restart();
+        }
+        if (fullRedraw) {
+            renderer.invalidate();
+        }
+        if (moveNext) {
+            ChessPiece piece = match.performChessMove(sources[ply], targets[ply]);
+            if (piece != null) {
+                captured.add(piece);
+            }
+            ply++;
+            renderer.drawMatch(match, captured);
+        } else {
+            renderer.drawBoard(match, highlights[ply]);
+        }
+        moveNext = !moveNext;
+        frames++;
+        return renderer.getLastFrameBytes();
+    }
+
+    private void restart() {
+        while (match.canUndo()) {
+            match.undoMove();
+        }
+        captured.clear();
+        renderer.invalidate();
+        ply = 0;
+        moveNext = false;
+    }
+
+    // Discards the frames, counting their bytes
+    private static final class CountingStream extends OutputStream {
+        private long bytes;
+
+        @Override
+        public void write(int b) {
+            bytes++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            bytes += len;
+        }
+    }
+}
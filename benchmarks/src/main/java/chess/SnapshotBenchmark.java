@@ -0,0 +1,100 @@
+package chess;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Branching from a position: PositionSnapshot.play against copying the board, either as the Piece[][] that
+ * getPieces returns or as a full ChessMatch copy with its own pieces. The gc profiler's alloc.rate.norm is the
+ * memory each node of an analysis tree costs, since everything allocated here stays reachable from the tree.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SnapshotBenchmark {
+
+    @Param({Positions.START, Positions.MIDDLEGAME, Positions.KIWIPETE})
+    private String position;
+
+    private ChessMatch match;
+    private PositionSnapshot root;
+    private final MoveList moves = new MoveList();
+    private int quiet;
+    private int capture;
+
+    @Setup
+    public void setup() {
+        match = Positions.create(position);
+        root = match.snapshot();
+        match.generateMoves(moves);
+        quiet = moves.get(0);
+        capture = quiet;
+        for (int i = 0; i < moves.size(); i++) {
+            if (Move.isCapture(moves.get(i))) {
+                capture = moves.get(i);
+                break;
+            }
+        }
+    }
+
+    @Benchmark
+    public PositionSnapshot snapshotPlay() {
+        return root.play(quiet);
+    }
+
+    // Copies both colors' bitboards (the start position has no capture, so it plays a quiet move there)
+    @Benchmark
+    public PositionSnapshot snapshotPlayCapture() {
+        return root.play(capture);
+    }
+
+    @Benchmark
+    public PositionSnapshot snapshotOf() {
+        return PositionSnapshot.of(match);
+    }
+
+    @Benchmark
+    public ChessPiece[][] copyPieceGrid() {
+        return match.getPieces();
+    }
+
+    @Benchmark
+    public ChessMatch copyMatch() {
+        return new ChessMatch(match);
+    }
+
+    // Every child of the root, the first step of any tree search over shared positions
+    @Benchmark
+    public long branchSnapshots() {
+        long keys = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            keys ^= root.play(moves.get(i)).getZobristKey();
+        }
+        return keys;
+    }
+
+    @Benchmark
+    public long branchMatchCopies() {
+        long keys = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            ChessMatch child = new ChessMatch(match);
+            child.makeMove(moves.get(i));
+            keys ^= child.getZobristKey();
+        }
+        return keys;
+    }
+}
@@ -0,0 +1,111 @@
+package chess.journal;
+
+import chess.ChessMatch;
+import chess.ChessPosition;
+import chess.Move;
+import chess.MoveList;
+import chess.PieceType;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Measures journal writes and recovery: many matches play random moves through performChessMove,
+ * each thread keeping a window of live matches, and the journal is then recovered and every
+ * rebuilt match is checked against the Zobrist key it had when the writers stopped.
+ * Matches that end in checkmate or stalemate are detached, so recovery has to leave them out.
+ *
+ * Usage: java chess.journal.JournalBenchmark [matches] [threads] [plies] [sync|async] [file]
+ */
+public class JournalBenchmark {
+
+    private static final int WINDOW = 64;
+    private static final int SNAPSHOT_INTERVAL = 16;
+
+    public static void main(String[] args) throws Exception {
+        int matches = (args.length > 0) ? Integer.parseInt(args[0]) : 100_000;
+        int threads = (args.length > 1) ? Integer.parseInt(args[1]) : 16;
+        int plies = (args.length > 2) ? Integer.parseInt(args[2]) : 40;
+        boolean synchronous = args.length > 3 && args[3].equals("sync");
+        Path file = (args.length > 4) ? Paths.get(args[4]) : Files.createTempFile("moves", ".journal");
+        Files.deleteIfExists(file);
+
+        long[] keys = new long[matches];
+        boolean[] closed = new boolean[matches];
+        MoveJournal journal = new MoveJournal(file, SNAPSHOT_INTERVAL, synchronous);
+
+        long start = System.nanoTime();
+        Thread[] writers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            int first = t;
+            writers[t] = new Thread(() -> play(journal, first, threads, matches, plies, keys, closed));
+            writers[t].start();
+        }
+        for (Thread writer : writers) {
+            writer.join();
+        }
+        journal.flush();
+        long nanos = System.nanoTime() - start;
+
+        System.out.printf("%s journal, %d matches, %d threads: %d records in %.2f s = %.0f records/s, "
+                        + "%d fsyncs (%.1f records each), %.1f MB%n",
+                synchronous ? "Synchronous" : "Asynchronous", matches, threads, journal.getRecords(), nanos / 1e9,
+                journal.getRecords() * 1e9 / nanos, journal.getCommits(),
+                (double) journal.getRecords() / Math.max(1, journal.getCommits()), journal.getBytes() / 1e6);
+        journal.close();
+
+        AtomicInteger mismatches = new AtomicInteger();
+        MoveJournal.Recovery recovery = MoveJournal.recover(file, Runtime.getRuntime().availableProcessors(), (match, id) -> {
+            if (closed[id] || match.getZobristKey() != keys[id]) {
+                mismatches.incrementAndGet();
+            }
+        });
+        int open = 0;
+        for (boolean c : closed) {
+            open += c ? 0 : 1;
+        }
+        System.out.println(recovery);
+        System.out.println("Expected " + open + " open matches, " + mismatches.get() + " recovered with the wrong position");
+        Files.deleteIfExists(file);
+    }
+
+    private static void play(MoveJournal journal, int first, int step, int matches, int plies, long[] keys, boolean[] closed) {
+        SplittableRandom random = new SplittableRandom(first);
+        MoveList moves = new MoveList();
+        ChessMatch[] window = new ChessMatch[WINDOW];
+        int[] ids = new int[WINDOW];
+        for (int next = first; next < matches; ) {
+            int live = 0;
+            for (; live < WINDOW && next < matches; live++, next += step) {
+                ids[live] = next;
+                window[live] = new ChessMatch();
+                journal.attach(next, window[live]);
+            }
+            for (int ply = 0; ply < plies; ply++) {
+                for (int i = 0; i < live; i++) {
+                    ChessMatch match = window[i];
+                    if (closed[ids[i]]) {
+                        continue;
+                    }
+                    match.generateMoves(moves);
+                    int move = moves.get(random.nextInt(moves.size()));
+                    match.performChessMove(ChessPosition.fromSquare(Move.from(move)), ChessPosition.fromSquare(Move.to(move)));
+                    if (match.getPromoted() != null && random.nextInt(4) == 0) {
+                        match.replacePromotedPiece(PieceType.KNIGHT);
+                    }
+                    if (match.getCheckMate() || match.getStalemate()) {
+                        journal.detach(ids[i], match);
+                        closed[ids[i]] = true;
+                    }
+                }
+            }
+            for (int i = 0; i < live; i++) {
+                keys[ids[i]] = window[i].getZobristKey();
+            }
+        }
+    }
+}